@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy.benchmarks;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measures the {@code map as Type} conversion to {@link JsonObject} and to a data object.
+ */
+@State(Scope.Thread)
+public class AsTypeBenchmark extends BenchmarkBase {
+
+  private GroovyOps ops;
+  private Map<String, Object> map;
+
+  @Setup
+  public void setup() throws Exception {
+    ops = GroovyOps.load();
+    map = new LinkedHashMap<>();
+    map.put("instances", 4);
+    map.put("ha", false);
+    map.put("config", new LinkedHashMap<>(Map.of("port", 8080)));
+  }
+
+  @Benchmark
+  public Object jsonObject() {
+    return ops.asJsonObject(map);
+  }
+
+  @Benchmark
+  public Object dataObject() {
+    return ops.asDataObject(map);
+  }
+
+  @Benchmark
+  public Object dataObjectJava() {
+    return new DeploymentOptions(new JsonObject(map));
+  }
+}
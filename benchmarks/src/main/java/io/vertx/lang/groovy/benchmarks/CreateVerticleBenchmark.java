@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.benchmarks;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.lang.groovy.GroovyVerticleFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures {@link GroovyVerticleFactory#createVerticle}, the {@code cold} benchmark uses a new class loader for each
+ * invocation so the script is compiled each time, the {@code warm} benchmark reuses the same class loader and gets
+ * the compiled script from the cache.
+ */
+@State(Scope.Benchmark)
+public class CreateVerticleBenchmark extends BenchmarkBase {
+
+  private static final String SCRIPT = "" +
+    "def counter = 0\n" +
+    "vertx.eventBus().consumer('benchmark') { msg ->\n" +
+    "  msg.reply(counter++)\n" +
+    "}\n" +
+    "def vertxStop() {\n" +
+    "}\n";
+
+  private Vertx vertx;
+  private GroovyVerticleFactory factory;
+  private Path dir;
+  private URL[] urls;
+  private ClassLoader loader;
+
+  @Setup
+  public void setup() throws Exception {
+    dir = Files.createTempDirectory("vertx-groovy");
+    Files.write(dir.resolve("BenchmarkVerticle.groovy"), SCRIPT.getBytes(StandardCharsets.UTF_8));
+    urls = new URL[]{dir.toUri().toURL()};
+    loader = new URLClassLoader(urls, CreateVerticleBenchmark.class.getClassLoader());
+    vertx = Vertx.vertx();
+    factory = new GroovyVerticleFactory();
+    factory.init(vertx);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    factory.close();
+    await(vertx.close());
+    Files.deleteIfExists(dir.resolve("BenchmarkVerticle.groovy"));
+    Files.deleteIfExists(dir);
+  }
+
+  @Benchmark
+  public Verticle cold() throws Exception {
+    return createVerticle(new URLClassLoader(urls, CreateVerticleBenchmark.class.getClassLoader()));
+  }
+
+  @Benchmark
+  public Verticle warm() throws Exception {
+    return createVerticle(loader);
+  }
+
+  private Verticle createVerticle(ClassLoader classLoader) throws Exception {
+    Promise<Callable<Verticle>> promise = Promise.promise();
+    factory.createVerticle("BenchmarkVerticle.groovy", classLoader, promise);
+    return await(promise.future()).call();
+  }
+}
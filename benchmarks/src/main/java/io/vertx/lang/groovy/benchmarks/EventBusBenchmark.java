@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.benchmarks;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures an event bus request/reply round-trip, both the request and the reply are handled by Groovy closures.
+ */
+@State(Scope.Benchmark)
+public class EventBusBenchmark extends BenchmarkBase {
+
+  private static final String ADDRESS = "benchmark";
+
+  private Vertx vertx;
+  private GroovyOps ops;
+  private JsonObject json;
+
+  @Setup
+  public void setup() throws Exception {
+    vertx = Vertx.vertx();
+    ops = GroovyOps.load();
+    ops.replyTo(vertx, ADDRESS);
+    json = new JsonObject().put("name", "vert.x").put("port", 8080);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    await(vertx.close());
+  }
+
+  @Benchmark
+  public Object string() throws Exception {
+    return await(ops.request(vertx, ADDRESS, "ping"));
+  }
+
+  @Benchmark
+  public Object jsonObject() throws Exception {
+    return await(ops.request(vertx, ADDRESS, json));
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy.benchmarks;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Map;
+
+/**
+ * The operations measured from Groovy code, implemented by the {@code GroovyOpsImpl.groovy} script so each call
+ * goes through the Groovy dispatch and the Vert.x extension module, and by the {@code StaticGroovyOpsImpl.groovy}
+ * script for the statically compiled variants.
+ */
+public interface GroovyOps {
+
+  static GroovyOps load() throws Exception {
+    return load("GroovyOpsImpl");
+  }
+
+  /**
+   * Load the implementation compiled with {@code @CompileStatic}.
+   */
+  static GroovyOps loadStatic() throws Exception {
+    return load("StaticGroovyOpsImpl");
+  }
+
+  private static GroovyOps load(String name) throws Exception {
+    GroovyClassLoader loader = new GroovyClassLoader(GroovyOps.class.getClassLoader());
+    Class<?> clazz = loader.parseClass(new GroovyCodeSource(GroovyOps.class.getResource(name + ".groovy")));
+    return (GroovyOps) clazz.getDeclaredConstructor().newInstance();
+  }
+
+  Object objectGet(JsonObject json, String key);
+
+  Object objectPut(JsonObject json, String key, Object value);
+
+  Object arrayGet(JsonArray json, int idx);
+
+  int objectGetInt(JsonObject json, String key);
+
+  Object asJsonObject(Map<String, Object> map);
+
+  Object asDataObject(Map<String, Object> map);
+
+  void replyTo(Vertx vertx, String address);
+
+  Future<Object> request(Vertx vertx, String address, Object body);
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy.benchmarks;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the {@code getAt}/{@code putAt} subscript operators on {@link JsonObject} and {@link JsonArray}, the
+ * {@code java} benchmarks are the baseline without Groovy dispatch and the {@code static} benchmarks use code
+ * compiled with {@code @CompileStatic}.
+ */
+@State(Scope.Thread)
+public class JsonBenchmark extends BenchmarkBase {
+
+  private GroovyOps ops;
+  private GroovyOps staticOps;
+  private JsonObject object;
+  private JsonArray array;
+
+  @Setup
+  public void setup() throws Exception {
+    ops = GroovyOps.load();
+    staticOps = GroovyOps.loadStatic();
+    object = new JsonObject()
+      .put("name", "vert.x")
+      .put("port", 8080)
+      .put("enabled", true);
+    array = new JsonArray().add("a").add("b").add("c");
+  }
+
+  @Benchmark
+  public Object objectGet() {
+    return ops.objectGet(object, "name");
+  }
+
+  @Benchmark
+  public Object objectGetStatic() {
+    return staticOps.objectGet(object, "name");
+  }
+
+  @Benchmark
+  public int objectGetInt() {
+    return ops.objectGetInt(object, "port");
+  }
+
+  @Benchmark
+  public int objectGetIntStatic() {
+    return staticOps.objectGetInt(object, "port");
+  }
+
+  @Benchmark
+  public Object objectGetJava() {
+    return object.getValue("name");
+  }
+
+  @Benchmark
+  public Object objectPut() {
+    return ops.objectPut(object, "port", 8081);
+  }
+
+  @Benchmark
+  public Object objectPutStatic() {
+    return staticOps.objectPut(object, "port", 8081);
+  }
+
+  @Benchmark
+  public Object objectPutJava() {
+    return object.put("port", 8081);
+  }
+
+  @Benchmark
+  public Object arrayGet() {
+    return ops.arrayGet(array, 1);
+  }
+
+  @Benchmark
+  public Object arrayGetStatic() {
+    return staticOps.arrayGet(array, 1);
+  }
+
+  @Benchmark
+  public Object arrayGetJava() {
+    return array.getValue(1);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.benchmarks;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.lang.groovy.ScriptVerticle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the {@link ScriptVerticle} start/stop dispatch to the {@code vertxStart} and {@code vertxStop} methods of
+ * a script, with no lifecycle method, with no-arg methods or with methods taking a promise.
+ */
+@State(Scope.Thread)
+public class ScriptVerticleBenchmark extends BenchmarkBase {
+
+  private static final String NONE = "";
+  private static final String SYNC = "" +
+    "def vertxStart() {}\n" +
+    "def vertxStop() {}\n";
+  private static final String ASYNC = "" +
+    "def vertxStart(promise) { promise.complete() }\n" +
+    "def vertxStop(promise) { promise.complete() }\n";
+
+  @Param({"none", "sync", "async"})
+  public String lifecycle;
+
+  private Vertx vertx;
+  private ScriptVerticle verticle;
+
+  @Setup
+  public void setup() throws Exception {
+    String source;
+    switch (lifecycle) {
+      case "sync":
+        source = SYNC;
+        break;
+      case "async":
+        source = ASYNC;
+        break;
+      default:
+        source = NONE;
+        break;
+    }
+    GroovyClassLoader loader = new GroovyClassLoader(ScriptVerticleBenchmark.class.getClassLoader());
+    Script script = (Script) loader.parseClass(source, "BenchmarkScript.groovy").getDeclaredConstructor().newInstance();
+    vertx = Vertx.vertx();
+    verticle = new ScriptVerticle(script);
+    verticle.init(vertx, vertx.getOrCreateContext());
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    await(vertx.close());
+  }
+
+  @Benchmark
+  public Object startStop() throws Exception {
+    Promise<Void> start = Promise.promise();
+    verticle.start(start);
+    Promise<Void> stop = Promise.promise();
+    verticle.stop(stop);
+    return stop.future();
+  }
+}
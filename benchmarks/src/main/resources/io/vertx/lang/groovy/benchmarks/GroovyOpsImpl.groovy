@@ -0,0 +1,44 @@
+package io.vertx.lang.groovy.benchmarks
+
+import io.vertx.core.DeploymentOptions
+import io.vertx.core.Future
+import io.vertx.core.Vertx
+import io.vertx.core.json.JsonArray
+import io.vertx.core.json.JsonObject
+
+class GroovyOpsImpl implements GroovyOps {
+
+  Object objectGet(JsonObject json, String key) {
+    json[key]
+  }
+
+  Object objectPut(JsonObject json, String key, Object value) {
+    json[key] = value
+  }
+
+  Object arrayGet(JsonArray json, int idx) {
+    json[idx]
+  }
+
+  int objectGetInt(JsonObject json, String key) {
+    json[key] as int
+  }
+
+  Object asJsonObject(Map<String, Object> map) {
+    map as JsonObject
+  }
+
+  Object asDataObject(Map<String, Object> map) {
+    map as DeploymentOptions
+  }
+
+  void replyTo(Vertx vertx, String address) {
+    vertx.eventBus().consumer(address) { msg ->
+      msg.reply(msg.body())
+    }
+  }
+
+  Future<Object> request(Vertx vertx, String address, Object body) {
+    vertx.eventBus().request(address, body).map { msg -> msg.body() }
+  }
+}
@@ -0,0 +1,47 @@
+package io.vertx.lang.groovy.benchmarks
+
+import groovy.transform.CompileStatic
+import io.vertx.core.DeploymentOptions
+import io.vertx.core.Future
+import io.vertx.core.Vertx
+import io.vertx.core.eventbus.Message
+import io.vertx.core.json.JsonArray
+import io.vertx.core.json.JsonObject
+
+@CompileStatic
+class StaticGroovyOpsImpl implements GroovyOps {
+
+  Object objectGet(JsonObject json, String key) {
+    json[key]
+  }
+
+  Object objectPut(JsonObject json, String key, Object value) {
+    json[key] = value
+  }
+
+  Object arrayGet(JsonArray json, int idx) {
+    json[idx]
+  }
+
+  int objectGetInt(JsonObject json, String key) {
+    json.intAt(key)
+  }
+
+  Object asJsonObject(Map<String, Object> map) {
+    map as JsonObject
+  }
+
+  Object asDataObject(Map<String, Object> map) {
+    map as DeploymentOptions
+  }
+
+  void replyTo(Vertx vertx, String address) {
+    vertx.eventBus().consumer(address) { Message<Object> msg ->
+      msg.reply(msg.body())
+    }
+  }
+
+  Future<Object> request(Vertx vertx, String address, Object body) {
+    vertx.eventBus().request(address, body).map { Message<Object> msg -> msg.body() }
+  }
+}
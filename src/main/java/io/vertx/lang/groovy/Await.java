@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import io.vertx.core.Future;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Blocking style helpers for scripts deployed with the {@link io.vertx.core.ThreadingModel#VIRTUAL_THREAD} threading
+ * model, meant to be statically imported:
+ *
+ * <pre>
+ * import static io.vertx.lang.groovy.Await.await
+ *
+ * def vertxStart() {
+ *   def server = await(vertx.createHttpServer().requestHandler { req -&gt; ... }.listen(8080))
+ * }
+ * </pre>
+ *
+ * Awaiting suspends the virtual thread rather than the carrier thread, other tasks of the verticle keep running
+ * meanwhile. Awaiting on an event loop thread is not allowed.
+ */
+public final class Await {
+
+  private Await() {
+  }
+
+  /**
+   * Await the completion of a future, the failure of the future is thrown like {@link Future#await()} does.
+   * <p>
+   * A script can call {@code future.await()} as well, this static form reads like the collection variant and is the
+   * form recognized by the {@link io.vertx.lang.groovy.transform.Async} transformation.
+   *
+   * @param future the future
+   * @return the future result
+   */
+  public static <T> T await(Future<T> future) {
+    return future.await();
+  }
+
+  /**
+   * Await the completion of several futures, it fails as soon as one of them fails.
+   *
+   * @param futures the futures
+   * @return the results of the futures, in the same order
+   */
+  public static <T> List<T> await(Collection<? extends Future<? extends T>> futures) {
+    List<Future<? extends T>> list = new ArrayList<>(futures);
+    Future.all(list).await();
+    List<T> results = new ArrayList<>(list.size());
+    for (Future<? extends T> future : list) {
+      results.add(future.result());
+    }
+    return results;
+  }
+}
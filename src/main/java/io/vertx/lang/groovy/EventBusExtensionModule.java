@@ -0,0 +1,279 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import groovy.lang.Closure;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.MessageProducer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Extension module for sending and consuming event bus messages in batches.
+ *
+ * <p> The sending methods coalesce the messages in {@link JsonArray} bodies of up to {@code batchSize} elements and
+ * write one batch at a time: the next batch is written when the previous one has been, so a large list or a fast
+ * stream does not flood the event bus.
+ */
+public class EventBusExtensionModule {
+
+  /**
+   * Send the {@code messages} in {@link JsonArray} batches of up to {@code batchSize} elements.
+   *
+   * @param eventBus the event bus
+   * @param address the address
+   * @param messages the messages, they must be JSON values
+   * @param batchSize the maximum number of messages of a batch
+   * @return a future completed when all the batches have been sent
+   */
+  public static Future<Void> sendBatch(EventBus eventBus, String address, Iterable<?> messages, int batchSize) {
+    return writeBatches(eventBus.sender(address), messages.iterator(), batchSize);
+  }
+
+  /**
+   * Publish the {@code messages} in {@link JsonArray} batches of up to {@code batchSize} elements.
+   *
+   * @param eventBus the event bus
+   * @param address the address
+   * @param messages the messages, they must be JSON values
+   * @param batchSize the maximum number of messages of a batch
+   * @return a future completed when all the batches have been published
+   */
+  public static Future<Void> publishBatch(EventBus eventBus, String address, Iterable<?> messages, int batchSize) {
+    return writeBatches(eventBus.publisher(address), messages.iterator(), batchSize);
+  }
+
+  /**
+   * Send the messages of a {@code stream} in {@link JsonArray} batches of up to {@code batchSize} elements, the
+   * stream is paused while a batch is written.
+   *
+   * @param eventBus the event bus
+   * @param address the address
+   * @param stream the stream of messages, they must be JSON values
+   * @param batchSize the maximum number of messages of a batch
+   * @return a future completed when the stream has ended and all the batches have been sent
+   */
+  public static Future<Void> sendBatch(EventBus eventBus, String address, ReadStream<?> stream, int batchSize) {
+    return pipeBatches(eventBus.sender(address), stream, batchSize);
+  }
+
+  /**
+   * Publish the messages of a {@code stream} in {@link JsonArray} batches of up to {@code batchSize} elements, the
+   * stream is paused while a batch is written.
+   *
+   * @param eventBus the event bus
+   * @param address the address
+   * @param stream the stream of messages, they must be JSON values
+   * @param batchSize the maximum number of messages of a batch
+   * @return a future completed when the stream has ended and all the batches have been published
+   */
+  public static Future<Void> publishBatch(EventBus eventBus, String address, ReadStream<?> stream, int batchSize) {
+    return pipeBatches(eventBus.publisher(address), stream, batchSize);
+  }
+
+  /**
+   * Create a consumer delivering the messages in batches: the {@code handler} is called with a list of up to
+   * {@code batchSize} messages, or with the messages received so far when {@code maxDelay} milliseconds have elapsed
+   * since the first message of the batch was received.
+   *
+   * <p> This method must be called on a Vert.x context, the batches are delivered on this context. The messages of
+   * the pending batch are dropped when the consumer is unregistered, the {@code handler} is not called anymore.
+   *
+   * @param eventBus the event bus
+   * @param address the address
+   * @param batchSize the maximum number of messages of a batch
+   * @param maxDelay the maximum delay in milliseconds a message waits for its batch to be delivered
+   * @param handler the closure called with each {@code List<Message>} batch
+   * @return the consumer
+   */
+  public static <T> MessageConsumer<T> consumer(EventBus eventBus, String address, int batchSize, long maxDelay, Closure<?> handler) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Invalid batch size " + batchSize);
+    }
+    if (maxDelay < 1L) {
+      throw new IllegalArgumentException("Invalid max delay " + maxDelay);
+    }
+    Context context = Vertx.currentContext();
+    if (context == null) {
+      throw new IllegalStateException("A batching consumer must be created on a Vert.x context");
+    }
+    Vertx vertx = context.owner();
+    MessageConsumer<T> consumer = eventBus.consumer(address);
+    BatchingHandler<T> batching = new BatchingHandler<>(vertx, consumer, batchSize, maxDelay, handler);
+    consumer.handler(batching);
+    consumer.endHandler(v -> batching.cancel());
+    return consumer;
+  }
+
+  private static class BatchingHandler<T> implements Handler<Message<T>> {
+
+    private final Vertx vertx;
+    private final MessageConsumer<T> consumer;
+    private final int batchSize;
+    private final long maxDelay;
+    private final Closure<?> closure;
+    private List<Message<T>> batch;
+    private long timerId = -1L;
+
+    private BatchingHandler(Vertx vertx, MessageConsumer<T> consumer, int batchSize, long maxDelay, Closure<?> closure) {
+      this.vertx = vertx;
+      this.consumer = consumer;
+      this.batchSize = batchSize;
+      this.maxDelay = maxDelay;
+      this.closure = closure;
+    }
+
+    @Override
+    public void handle(Message<T> message) {
+      if (batch == null) {
+        batch = new ArrayList<>(batchSize);
+        if (batchSize > 1) {
+          timerId = vertx.setTimer(maxDelay, id -> {
+            timerId = -1L;
+            if (consumer.isRegistered()) {
+              flush();
+            } else {
+              // Unregistered meanwhile, the end handler may have been replaced
+              batch = null;
+            }
+          });
+        }
+      }
+      batch.add(message);
+      if (batch.size() >= batchSize) {
+        if (timerId != -1L) {
+          vertx.cancelTimer(timerId);
+          timerId = -1L;
+        }
+        flush();
+      }
+    }
+
+    /**
+     * Cancel the timer and drop the pending batch, the consumer has been unregistered.
+     */
+    private void cancel() {
+      if (timerId != -1L) {
+        vertx.cancelTimer(timerId);
+        timerId = -1L;
+      }
+      batch = null;
+    }
+
+    private void flush() {
+      List<Message<T>> messages = batch;
+      batch = null;
+      if (messages != null) {
+        closure.call(messages);
+      }
+    }
+  }
+
+  private static Future<Void> writeBatches(MessageProducer<Object> producer, Iterator<?> messages, int batchSize) {
+    if (batchSize < 1) {
+      return Future.failedFuture(new IllegalArgumentException("Invalid batch size " + batchSize));
+    }
+    Promise<Void> promise = Promise.promise();
+    writeBatches(producer, messages, batchSize, promise);
+    return promise.future();
+  }
+
+  private static void writeBatches(MessageProducer<Object> producer, Iterator<?> messages, int batchSize, Promise<Void> promise) {
+    while (messages.hasNext()) {
+      List<Object> batch = new ArrayList<>(batchSize);
+      while (batch.size() < batchSize && messages.hasNext()) {
+        batch.add(messages.next());
+      }
+      Future<Void> written = producer.write(new JsonArray(batch));
+      if (!written.isComplete()) {
+        // Resume when the batch is written
+        written.onComplete(ar -> {
+          if (ar.succeeded()) {
+            writeBatches(producer, messages, batchSize, promise);
+          } else {
+            promise.fail(ar.cause());
+          }
+        });
+        return;
+      } else if (written.failed()) {
+        promise.fail(written.cause());
+        return;
+      }
+    }
+    promise.complete();
+  }
+
+  private static Future<Void> pipeBatches(MessageProducer<Object> producer, ReadStream<?> stream, int batchSize) {
+    if (batchSize < 1) {
+      return Future.failedFuture(new IllegalArgumentException("Invalid batch size " + batchSize));
+    }
+    return new BatchingPipe(producer, stream, batchSize).promise.future();
+  }
+
+  private static class BatchingPipe {
+
+    private final MessageProducer<Object> producer;
+    private final ReadStream<?> stream;
+    private final int batchSize;
+    private final Promise<Void> promise = Promise.promise();
+    private List<Object> batch;
+
+    private BatchingPipe(MessageProducer<Object> producer, ReadStream<?> stream, int batchSize) {
+      this.producer = producer;
+      this.stream = stream;
+      this.batchSize = batchSize;
+      this.batch = new ArrayList<>(batchSize);
+      stream.exceptionHandler(promise::tryFail);
+      stream.endHandler(v -> end());
+      stream.handler(this::handle);
+    }
+
+    private void handle(Object message) {
+      batch.add(message);
+      if (batch.size() >= batchSize) {
+        JsonArray body = new JsonArray(batch);
+        batch = new ArrayList<>(batchSize);
+        stream.pause();
+        producer.write(body).onComplete(ar -> {
+          if (ar.succeeded()) {
+            stream.resume();
+          } else {
+            promise.tryFail(ar.cause());
+          }
+        });
+      }
+    }
+
+    private void end() {
+      if (batch.isEmpty()) {
+        promise.tryComplete();
+      } else {
+        producer.write(new JsonArray(batch)).onComplete(promise);
+      }
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import groovy.lang.GroovyClassLoader;
+import io.vertx.lang.groovy.impl.CompilerConfigurationResolver;
+import io.vertx.lang.groovy.impl.PrecompiledScripts;
+import io.vertx.lang.groovy.impl.ScriptDigest;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles the verticle scripts of a directory at build time, so {@link GroovyVerticleFactory} loads the compiled
+ * classes instead of running the Groovy compiler when deploying them.
+ * <p>
+ * The scripts are compiled with the same compiler configuration rules than {@link GroovyVerticleFactory}. The
+ * configuration resources are looked up like class loader resources, on the classpath of the compiler first and then
+ * in the script directory, so a configuration on the classpath takes precedence over one in the script directory. A
+ * precompiled class is only used when the deployed script source, if present, still matches the source it was
+ * compiled from.
+ */
+public class GroovyScriptCompiler {
+
+  /**
+   * Usage: {@code GroovyScriptCompiler <source-dir> <output-dir>}
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 2) {
+      System.err.println("Usage: " + GroovyScriptCompiler.class.getName() + " <source-dir> <output-dir>");
+      System.exit(1);
+    }
+    List<String> compiled = new GroovyScriptCompiler().compile(Paths.get(args[0]), Paths.get(args[1]));
+    System.out.println("Compiled " + compiled.size() + " Groovy verticle script(s) to " + args[1]);
+  }
+
+  /**
+   * Compile all the {@code .groovy} scripts of a directory.
+   *
+   * @param sourceDir the script directory, the script names are relative to this directory
+   * @param outputDir the directory receiving the classes and the script descriptors
+   * @return the names of the compiled scripts
+   * @throws IllegalArgumentException when two scripts declare the same class, e.g two scripts without a package
+   *                                  declaration with the same file name in different directories
+   */
+  public List<String> compile(Path sourceDir, Path outputDir) throws IOException {
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(sourceDir)) {
+      files = walk
+        .filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(".groovy"))
+        .filter(p -> !isConfiguration(sourceDir.relativize(p)))
+        .sorted()
+        .collect(Collectors.toList());
+    }
+    ClassLoader parent = Thread.currentThread().getContextClassLoader();
+    if (parent == null) {
+      parent = GroovyScriptCompiler.class.getClassLoader();
+    }
+    // Parent first, like the deployment class loaders
+    try (URLClassLoader loader = new URLClassLoader(new URL[]{sourceDir.toUri().toURL()}, parent)) {
+      CompilerConfiguration config;
+      try {
+        // A private resolver, so the configuration can be modified
+        config = new CompilerConfigurationResolver().resolve(loader).configuration();
+      } catch (Exception e) {
+        throw new IOException("Could not resolve the compiler configuration", e);
+      }
+      config.setTargetDirectory(outputDir.toFile());
+      try (GroovyClassLoader gcl = new GroovyClassLoader(loader, config)) {
+        checkClassNames(sourceDir, files, config, gcl);
+        CompilationUnit unit = new CompilationUnit(config, null, gcl);
+        Map<String, SourceUnit> sources = new LinkedHashMap<>();
+        for (Path file : files) {
+          String name = sourceDir.relativize(file).toString().replace(File.separatorChar, '/');
+          sources.put(name, unit.addSource(file.toFile()));
+        }
+        unit.compile();
+        for (Map.Entry<String, SourceUnit> source : sources.entrySet()) {
+          Path file = sourceDir.resolve(source.getKey());
+          PrecompiledScripts.write(outputDir, source.getKey(), mainClassName(source.getValue().getAST()),
+            ScriptDigest.sha256(Files.readAllBytes(file)));
+        }
+        return new ArrayList<>(sources.keySet());
+      }
+    }
+  }
+
+  /**
+   * The scripts are compiled together to the same output directory, unlike at deployment time two scripts cannot
+   * declare the same class, e.g the {@code Main} script class of {@code a/Main.groovy} and {@code b/Main.groovy}.
+   */
+  private static void checkClassNames(Path sourceDir, List<Path> files, CompilerConfiguration config, GroovyClassLoader gcl) {
+    Map<String, String> declared = new HashMap<>();
+    for (Path file : files) {
+      String name = sourceDir.relativize(file).toString().replace(File.separatorChar, '/');
+      CompilationUnit unit = new CompilationUnit(config, null, gcl);
+      SourceUnit source = unit.addSource(file.toFile());
+      unit.compile(Phases.CONVERSION);
+      for (ClassNode clazz : source.getAST().getClasses()) {
+        String other = declared.putIfAbsent(clazz.getName(), name);
+        if (other != null) {
+          throw new IllegalArgumentException("The scripts " + other + " and " + name + " both declare the class " +
+            clazz.getName() + ", declare a package in one of them");
+        }
+      }
+    }
+  }
+
+  private static boolean isConfiguration(Path relative) {
+    String name = relative.toString().replace(File.separatorChar, '/');
+    return name.equals("compilerConfiguration.groovy") ||
+      name.equals(System.getProperty(CompilerConfigurationResolver.CONFIGURATION_PROPERTY));
+  }
+
+  /**
+   * The class {@link GroovyClassLoader#parseClass} would return for this module.
+   */
+  private static String mainClassName(ModuleNode module) {
+    String main = module.getMainClassName();
+    if (main == null) {
+      main = module.getClasses().get(0).getName();
+    }
+    return main;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+/**
+ * Receives the metrics of the verticle scripts created by {@link GroovyVerticleFactory}, all durations are in
+ * nanoseconds.
+ * <p>
+ * The factory uses the implementation set with {@link GroovyVerticleFactory#metrics(GroovyScriptMetrics)} or
+ * otherwise the first implementation found by the {@link java.util.ServiceLoader}. Methods are called on worker or
+ * event loop threads and must not block.
+ */
+public interface GroovyScriptMetrics {
+
+  /**
+   * Called when the source of a script has been looked up.
+   *
+   * @param name the script name
+   * @param classpath {@code true} when the source is a class loader resource, {@code false} when it is a file relative
+   *                  to the {@code user.dir} directory or was not found
+   * @param duration the lookup duration
+   */
+  default void scriptResolved(String name, boolean classpath, long duration) {
+  }
+
+  /**
+   * Called when the compiler configuration of a script has been resolved.
+   *
+   * @param name the script name
+   * @param duration the resolution duration, including the evaluation of the configuration when it was not memoized
+   */
+  default void configurationResolved(String name, long duration) {
+  }
+
+  /**
+   * Called when the compiled script cache has been looked up.
+   *
+   * @param name the script name
+   * @param hit whether the compiled script was found
+   */
+  default void classCacheLookup(String name, boolean hit) {
+  }
+
+  /**
+   * Called when the bytecode cache configured by {@code vertx.groovy.classCacheDir} has been looked up.
+   *
+   * @param name the script name
+   * @param hit whether the bytecode was found
+   */
+  default void bytecodeCacheLookup(String name, boolean hit) {
+  }
+
+  /**
+   * Called when a script has been compiled.
+   *
+   * @param name the script name
+   * @param classes the number of classes of the script, including the classes it reuses from the scripts it depends on
+   *                when their bytecode is retained
+   * @param bytecodeSize the total size of the bytecode of these classes
+   * @param duration the compilation duration
+   */
+  default void scriptCompiled(String name, int classes, long bytecodeSize, long duration) {
+  }
+
+  /**
+   * Called when a verticle instance has been created from a script.
+   *
+   * @param name the script name
+   * @param duration the instantiation duration
+   */
+  default void verticleInstantiated(String name, long duration) {
+  }
+
+  /**
+   * Called when a verticle instance has started, the duration covers the script body and its {@code vertxStart}
+   * method until the start promise is completed.
+   *
+   * @param name the script name
+   * @param duration the start duration
+   * @param failure the failure or {@code null} when the verticle started
+   */
+  default void verticleStarted(String name, long duration, Throwable failure) {
+  }
+}
@@ -16,8 +16,6 @@
 package io.vertx.lang.groovy;
 
 import groovy.lang.*;
-import groovy.util.ConfigObject;
-import groovy.util.ConfigSlurper;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Verticle;
@@ -25,13 +23,33 @@ import io.vertx.core.Vertx;
 import io.vertx.core.internal.logging.Logger;
 import io.vertx.core.internal.logging.LoggerFactory;
 import io.vertx.core.spi.VerticleFactory;
-import org.codehaus.groovy.control.CompilerConfiguration;
+import io.vertx.lang.groovy.impl.BytecodeCache;
+import io.vertx.lang.groovy.impl.CompiledScript;
+import io.vertx.lang.groovy.impl.CompiledScriptCache;
+import io.vertx.lang.groovy.impl.CompilerConfigurationResolver;
+import io.vertx.lang.groovy.impl.GroovyCollectionCodec;
+import io.vertx.lang.groovy.impl.MeteredVerticle;
+import io.vertx.lang.groovy.impl.PrecompiledScripts;
+import io.vertx.lang.groovy.impl.ScriptClassLoader;
+import io.vertx.lang.groovy.impl.ScriptClassLoaders;
+import io.vertx.lang.groovy.impl.ScriptDigest;
+import io.vertx.lang.groovy.impl.ScriptLifecycle;
+import io.vertx.lang.groovy.impl.ScriptReloader;
+import io.vertx.lang.groovy.impl.ScriptResources;
 
-import java.io.File;
-import java.io.InputStream;
+import java.net.URI;
 import java.net.URL;
-import java.util.Properties;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
 
 /**
  * Placeholder
@@ -43,17 +61,70 @@ import java.util.concurrent.Callable;
  */
 public class GroovyVerticleFactory implements VerticleFactory {
 
-  private static final String CONFIGURATION_PROPERTY = "vertx.groovy.compilerConfiguration";
+  private static final String CLASS_CACHE_SIZE_PROPERTY = "vertx.groovy.classCacheSize";
+  private static final String CLASS_CACHE_DIR_PROPERTY = "vertx.groovy.classCacheDir";
+  private static final String RELOAD_INTERVAL_PROPERTY = "vertx.groovy.reloadInterval";
+  private static final String CLASS_LOADER_CACHE_SIZE_PROPERTY = "vertx.groovy.classLoaderCacheSize";
+  private static final String RESOURCE_MISS_TTL_PROPERTY = "vertx.groovy.resourceMissTtl";
+  private static final String COLLECTION_CODEC_PROPERTY = "vertx.groovy.collectionCodec";
+  private static final int DEFAULT_CLASS_LOADER_CACHE_SIZE = 64;
+  private static final long DEFAULT_RESOURCE_MISS_TTL = 1000L;
+  private static final int DEFAULT_CLASS_CACHE_SIZE = 256;
   private static Logger log = LoggerFactory.getLogger(GroovyVerticleFactory.class);
+  private static final GroovyScriptMetrics NO_METRICS = new GroovyScriptMetrics() {
+  };
+
+  // Shared by all factories, entries are keyed by the deployment class loader
+  private static final CompiledScriptCache classCache = new CompiledScriptCache(
+    Integer.getInteger(CLASS_CACHE_SIZE_PROPERTY, DEFAULT_CLASS_CACHE_SIZE));
+  private static final BytecodeCache bytecodeCache = createBytecodeCache();
+  private static final ScriptResources resources = new ScriptResources(
+    Long.getLong(RESOURCE_MISS_TTL_PROPERTY, DEFAULT_RESOURCE_MISS_TTL));
+  private static final CompilerConfigurationResolver configurations = new CompilerConfigurationResolver(resources);
+  private static final ScriptClassLoaders loaders = new ScriptClassLoaders(
+    Integer.getInteger(CLASS_LOADER_CACHE_SIZE_PROPERTY, DEFAULT_CLASS_LOADER_CACHE_SIZE),
+    // The bytecode of the reused classes is stored along with the scripts reusing them
+    bytecodeCache != null,
+    // Release the classes of an evicted loader
+    loader -> classCache.invalidate(script -> sharedLoader(script.mainClass()) == loader));
 
   private Vertx vertx;
+  private ScriptReloader reloader;
+  private List<Class<?>> codecClasses = Collections.emptyList();
+  private volatile GroovyScriptMetrics metrics = NO_METRICS;
 
   public GroovyVerticleFactory() {
   }
 
+  /**
+   * Set the listener receiving the metrics of the scripts created by this factory, it replaces the listener found
+   * by the {@link ServiceLoader}.
+   *
+   * @param metrics the metrics listener
+   * @return a reference to this, so the API can be used fluently
+   */
+  public GroovyVerticleFactory metrics(GroovyScriptMetrics metrics) {
+    this.metrics = metrics != null ? metrics : NO_METRICS;
+    return this;
+  }
+
   @Override
   public void init(Vertx vertx) {
     this.vertx = vertx;
+    // The codec changes how every verticle of this Vert.x instance sends these collections
+    if (Boolean.getBoolean(COLLECTION_CODEC_PROPERTY)) {
+      this.codecClasses = GroovyCollectionCodec.register(vertx.eventBus());
+    }
+    if (metrics == NO_METRICS) {
+      for (GroovyScriptMetrics found : ServiceLoader.load(GroovyScriptMetrics.class, GroovyVerticleFactory.class.getClassLoader())) {
+        metrics = found;
+        break;
+      }
+    }
+    long reloadInterval = Long.getLong(RELOAD_INTERVAL_PROPERTY, 0L);
+    if (reloadInterval > 0L) {
+      reloader = new ScriptReloader(vertx, reloadInterval, this::invalidate);
+    }
   }
 
   @Override
@@ -64,99 +135,188 @@ public class GroovyVerticleFactory implements VerticleFactory {
   @Override
   public void createVerticle(String verticleName, ClassLoader classLoader, Promise<Callable<Verticle>> promise) {
     String name = VerticleFactory.removePrefix(verticleName);
-    Future<Class<?>> fut = vertx.executeBlocking(() -> {
-      CompilerConfiguration compilerConfig = createCompilerConfiguration(classLoader);
-      if (name.endsWith(".groovy")) {
-        URL url = classLoader.getResource(name);
-        if (url == null) {
-          File f = new File(name);
-          if (!f.isAbsolute()) {
-            f = new File(System.getProperty("user.dir"), name);
-          }
-          if (f.exists() && f.isFile()) {
-            url = f.toURI().toURL();
-          }
-        }
-        if (url == null) {
-          throw new IllegalStateException("Cannot find verticle script: " + name + " on classpath");
-        }
-        GroovyClassLoader gcl = new GroovyClassLoader(classLoader, compilerConfig);
-        GroovyCodeSource gcs = new GroovyCodeSource(url);
-        return gcl.parseClass(gcs);
-      } else {
-        return classLoader.loadClass(name);
-      }
-    });
-    fut.map(clazz -> (Callable<Verticle>) () -> {
-      Object instance = clazz.getDeclaredConstructor().newInstance();
+    Future<CompiledScript> fut = vertx.executeBlocking(() -> compile(name, classLoader));
+    fut.map(script -> instantiator(verticleName, name, classLoader, script)).onComplete(promise);
+  }
+
+  private Callable<Verticle> instantiator(String verticleName, String name, ClassLoader classLoader, CompiledScript script) {
+    Class<?> mainClass = script.mainClass();
+    ScriptLifecycle lifecycle = Script.class.isAssignableFrom(mainClass) ? ScriptLifecycle.of(mainClass.asSubclass(Script.class)) : null;
+    GroovyScriptMetrics metrics = this.metrics;
+    ScriptClassLoader sharedLoader = sharedLoader(mainClass);
+    // Called once per deployment, the instances of the deployment share the vertxShared value
+    ScriptLifecycle.Shared shared = lifecycle != null ? lifecycle.newShared() : null;
+    return () -> {
+      long start = System.nanoTime();
+      Object instance = lifecycle != null ? lifecycle.newInstance(mainClass.asSubclass(Script.class)) : mainClass.getDeclaredConstructor().newInstance();
+      Verticle verticle;
       if (instance instanceof Script) {
-        return new ScriptVerticle((Script) instance);
+        verticle = new ScriptVerticle((Script) instance, lifecycle, shared);
       } else if (instance instanceof Verticle) {
-        return (Verticle) instance;
+        verticle = (Verticle) instance;
       } else {
         throw new Exception("Class " + instance.getClass().getName() + " is not a Verticle");
       }
-    }).onComplete(promise);
+      if (sharedLoader != null) {
+        verticle = loaders.use(sharedLoader, verticle);
+      }
+      if (metrics != NO_METRICS) {
+        metrics.verticleInstantiated(name, System.nanoTime() - start);
+        verticle = new MeteredVerticle(name, metrics, verticle);
+      }
+      if (reloader != null) {
+        verticle = reloader.track(verticleName, classLoader, script.sources(), verticle);
+      }
+      return verticle;
+    };
   }
 
   @Override
   public void close() {
+    if (reloader != null) {
+      reloader.close();
+      reloader = null;
+    }
+    if (vertx != null) {
+      GroovyCollectionCodec.unregister(vertx.eventBus(), codecClasses);
+      codecClasses = Collections.emptyList();
+    }
     vertx = null;
   }
 
-  private CompilerConfiguration createCompilerConfiguration(ClassLoader cl) {
-    Closure customizer = null;
-    Properties properties = new Properties();
-    URL url = findConfigurationResource(cl);
-    if(url != null) {
-      log.trace("Configuring groovy compiler with ${url}");
-      try {
-        if(url.getFile().toLowerCase().endsWith(".groovy")) {
-          ConfigSlurper slurper = new ConfigSlurper();
-          slurper.setClassLoader(new GroovyClassLoader(cl));
-          ConfigObject cObject = slurper.parse(url);
-          Object c = cObject.remove("customizer");
-          if (c instanceof Closure<?>) {
-            customizer = (Closure) c;
-          }
-          properties.putAll(cObject.toProperties());
-        } else {
-          InputStream stream = url.openStream();
-          properties.load(stream);
+  /**
+   * Compile a set of verticle scripts ahead of their deployment, later deployments of these scripts with the same
+   * class loader will use the compiled classes.
+   * <p>
+   * The scripts are compiled in parallel by a pool with as many threads as available processors, they share the
+   * classes of the scripts they depend on like any script deployed with the same class loader. The compilations are
+   * not serialized, scripts compiled concurrently may each compile a script they depend on, the scripts compiled
+   * afterwards reuse one of these classes.
+   * <p>
+   * The factory should be {@link #init(Vertx) initialized}, so the compilations are reported to its metrics.
+   *
+   * @param classLoader the class loader the scripts will be deployed with
+   * @param verticleNames the names of the verticles to compile, names not ending with {@code .groovy} are ignored
+   * @return a future completed when all the scripts are compiled
+   */
+  public Future<Void> precompile(ClassLoader classLoader, List<String> verticleNames) {
+    return precompile(classLoader, verticleNames, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Like {@link #precompile(ClassLoader, List)} but with a bounded number of compiler threads.
+   *
+   * @param classLoader the class loader the scripts will be deployed with
+   * @param verticleNames the names of the verticles to compile, names not ending with {@code .groovy} are ignored
+   * @param parallelism the maximum number of scripts compiled concurrently
+   * @return a future completed when all the scripts are compiled
+   */
+  public Future<Void> precompile(ClassLoader classLoader, List<String> verticleNames, int parallelism) {
+    List<String> names = new ArrayList<>();
+    for (String verticleName : verticleNames) {
+      String name = VerticleFactory.removePrefix(verticleName);
+      if (name.endsWith(".groovy") && !names.contains(name)) {
+        names.add(name);
+      }
+    }
+    if (names.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(parallelism, names.size())));
+    Promise<Void> promise = Promise.promise();
+    CompletableFuture<?>[] tasks = names.stream()
+      .map(name -> CompletableFuture.runAsync(() -> {
+        try {
+          compile(name, classLoader);
+        } catch (Exception e) {
+          throw new CompletionException(e);
+        }
+      }, pool))
+      .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(tasks).whenComplete((v, err) -> {
+      pool.shutdown();
+      if (err != null) {
+        promise.fail(err instanceof CompletionException && err.getCause() != null ? err.getCause() : err);
+      } else {
+        promise.complete();
+      }
+    });
+    return promise.future();
+  }
+
+  private CompiledScript compile(String name, ClassLoader classLoader) throws Exception {
+    if (name.endsWith(".groovy")) {
+      long start = System.nanoTime();
+      ScriptResources.Location location = resources.script(classLoader, name);
+      URL url = location.url();
+      metrics.scriptResolved(name, location.isClasspath(), System.nanoTime() - start);
+      String digest = url != null ? ScriptDigest.sha256(url) : null;
+      Class<?> precompiled = PrecompiledScripts.load(name, digest, classLoader);
+      if (precompiled != null) {
+        return new CompiledScript(precompiled, Collections.emptySet(), null);
+      }
+      if (url == null) {
+        throw new IllegalStateException("Cannot find verticle script: " + name + " on classpath");
+      }
+      start = System.nanoTime();
+      CompilerConfigurationResolver.Resolved compilerConfig = configurations.resolve(classLoader);
+      metrics.configurationResolved(name, System.nanoTime() - start);
+      if (!compilerConfig.isCacheable()) {
+        // A stateful customizer may compile the same script differently
+        return compile(name, url, scriptClassLoader(classLoader, compilerConfig));
+      }
+      String configuration = compilerConfig.fingerprint();
+      CompiledScriptCache.Key key = new CompiledScriptCache.Key(classLoader, url.toExternalForm(), digest, configuration);
+      CompiledScript script = classCache.get(key);
+      metrics.classCacheLookup(name, script != null);
+      if (script == null && bytecodeCache != null) {
+        script = bytecodeCache.load(name, digest, configuration, classLoader);
+        metrics.bytecodeCacheLookup(name, script != null);
+      }
+      if (script == null) {
+        script = compile(name, url, scriptClassLoader(classLoader, compilerConfig));
+        if (bytecodeCache != null) {
+          bytecodeCache.store(name, digest, configuration, script);
         }
-      } catch(Exception e) {
-        log.error("Error loading Groovy CompilerConfiguration properties from $url", e);
       }
+      classCache.put(key, script);
+      return script;
     } else {
-      log.trace("No groovy configuration file found.");
+      return new CompiledScript(classLoader.loadClass(name), Collections.emptySet(), null);
     }
+  }
 
-    CompilerConfiguration compilerCfg = new CompilerConfiguration(CompilerConfiguration.DEFAULT);
-    if(properties.size() != 0){
-      compilerCfg.configure(properties);
-    }
+  private CompiledScript compile(String name, URL url, ScriptClassLoader loader) throws Exception {
+    long start = System.nanoTime();
+    CompiledScript script = loader.compile(url);
+    long duration = System.nanoTime() - start;
+    Map<String, byte[]> bytecode = script.bytecode() != null ? script.bytecode() : Collections.emptyMap();
+    metrics.scriptCompiled(name, bytecode.size(), bytecode.values().stream().mapToLong(code -> code.length).sum(), duration);
+    return script;
+  }
 
-    if (customizer != null) {
-      Object result = customizer.call(compilerCfg);
-      // Expectation: If result isn't a CompilerConfiguration, the original one has been modified
-      if(result instanceof CompilerConfiguration)
-        compilerCfg = (CompilerConfiguration) result;
+  private ScriptClassLoader scriptClassLoader(ClassLoader classLoader, CompilerConfigurationResolver.Resolved config) {
+    if (!config.isCacheable()) {
+      return new ScriptClassLoader(classLoader, config.configuration());
     }
-    return compilerCfg;
+    return loaders.get(classLoader, config.fingerprint(), config.configuration());
   }
 
-  private URL findConfigurationResource(ClassLoader cl) {
-    try{
-      String prop = System.getProperty(CONFIGURATION_PROPERTY);
-      if(prop != null) {
-        return cl.getResource(prop);
-      }
-    } catch(SecurityException ignored){
+  private static ScriptClassLoader sharedLoader(Class<?> mainClass) {
+    ClassLoader definingLoader = mainClass.getClassLoader();
+    if (definingLoader != null && definingLoader.getParent() instanceof ScriptClassLoader) {
+      return (ScriptClassLoader) definingLoader.getParent();
     }
-    URL url = cl.getResource("compilerConfiguration.groovy");
-    if(url == null) {
-      url = cl.getResource("compilerConfiguration.properties");
-    }
-    return url;
+    return null;
+  }
+
+  private void invalidate(URI source) {
+    classCache.invalidate(source);
+    loaders.loaders().forEach(loader -> loader.invalidate(source));
+  }
+
+  private static BytecodeCache createBytecodeCache() {
+    String dir = System.getProperty(CLASS_CACHE_DIR_PROPERTY);
+    return dir != null ? new BytecodeCache(Paths.get(dir)) : null;
   }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import groovy.lang.Closure;
+import groovy.lang.DelegatesTo;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.lang.groovy.impl.JsonBufferBuilder;
+
+/**
+ * Builds JSON documents directly into a {@link Buffer}, without building a map, a {@link io.vertx.core.json.JsonObject}
+ * or a string first:
+ *
+ * <pre>
+ * response.end(Json.buffer {
+ *   id 1
+ *   tags(['a', 'b'])
+ *   author {
+ *     name 'Julien'
+ *   }
+ *   items(list) { item -&gt;
+ *     id item.id
+ *   }
+ * })
+ * </pre>
+ *
+ * Each method invoked in the closure writes a field named after the method: a single argument is the field value,
+ * a closure builds a nested object, several arguments are an array and an iterable followed by a closure is an
+ * array of the objects built by the closure for each element. The values are encoded like in a
+ * {@link io.vertx.core.json.JsonObject}, maps and lists are written as they are traversed and data objects are
+ * written with their {@code toJson()} representation.
+ */
+public final class Json {
+
+  private Json() {
+  }
+
+  /**
+   * Encode the JSON object built by the {@code closure}.
+   *
+   * @param closure the closure building the object
+   * @return the buffer containing the encoded object
+   */
+  public static Buffer buffer(@DelegatesTo(strategy = Closure.DELEGATE_FIRST) Closure<?> closure) {
+    return JsonBufferBuilder.object(closure);
+  }
+
+  /**
+   * Encode a JSON array of the objects built by calling the {@code closure} with each of the {@code values}.
+   *
+   * @param values the values
+   * @param closure the closure building an object from a value
+   * @return the buffer containing the encoded array
+   */
+  public static Buffer buffer(Iterable<?> values, @DelegatesTo(strategy = Closure.DELEGATE_FIRST) Closure<?> closure) {
+    return JsonBufferBuilder.array(values, closure);
+  }
+
+  /**
+   * Encode a value such as a map or a list, it is written as it is traversed without converting it to a
+   * {@link io.vertx.core.json.JsonObject} or a {@link io.vertx.core.json.JsonArray} first.
+   *
+   * @param value the value
+   * @return the buffer containing the encoded value
+   */
+  public static Buffer buffer(Object value) {
+    return JsonBufferBuilder.value(value);
+  }
+}
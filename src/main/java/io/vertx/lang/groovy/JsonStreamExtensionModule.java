@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import groovy.lang.Closure;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.parsetools.JsonParser;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.lang.groovy.impl.JsonStreamWalker;
+
+import java.util.AbstractMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Extension module for iterating large JSON documents without materializing them.
+ *
+ * <p> The document is parsed incrementally and only the members of the iterated array or object are materialized,
+ * one at a time, as {@link io.vertx.core.json.JsonObject}, {@link io.vertx.core.json.JsonArray} or scalar values.
+ * The iterated container is designated by a <a href="https://tools.ietf.org/html/rfc6901">JSON pointer</a>, the
+ * empty pointer designates the document root.
+ */
+public class JsonStreamExtensionModule {
+
+  /**
+   * Iterate the elements of the JSON array of the {@code buffer} root.
+   *
+   * @param buffer the buffer containing the JSON document
+   * @param closure the closure called with each element
+   */
+  public static void eachElement(Buffer buffer, Closure<?> closure) {
+    eachElement(buffer, "", closure);
+  }
+
+  /**
+   * Iterate the elements of the JSON array designated by {@code pointer}.
+   *
+   * @param buffer the buffer containing the JSON document
+   * @param pointer the JSON pointer of the array
+   * @param closure the closure called with each element
+   */
+  public static void eachElement(Buffer buffer, String pointer, Closure<?> closure) {
+    walk(buffer, pointer, true, elementConsumer(closure));
+  }
+
+  /**
+   * Iterate the elements of the JSON array of the {@code stream} root.
+   *
+   * @param stream the stream of the JSON document
+   * @param closure the closure called with each element
+   * @return a future completed when the stream ends
+   */
+  public static Future<Void> eachElement(ReadStream<Buffer> stream, Closure<?> closure) {
+    return eachElement(stream, "", closure);
+  }
+
+  /**
+   * Iterate the elements of the JSON array designated by {@code pointer}.
+   *
+   * @param stream the stream of the JSON document
+   * @param pointer the JSON pointer of the array
+   * @param closure the closure called with each element
+   * @return a future completed when the stream ends or failed when the document is invalid, when the array is
+   *         not found or when the closure throws an exception
+   */
+  public static Future<Void> eachElement(ReadStream<Buffer> stream, String pointer, Closure<?> closure) {
+    return walk(stream, pointer, true, elementConsumer(closure));
+  }
+
+  /**
+   * Iterate the entries of the JSON object of the {@code buffer} root.
+   *
+   * @param buffer the buffer containing the JSON document
+   * @param closure the closure called with the key and the value of each entry, or with a {@link java.util.Map.Entry}
+   *                when it declares a single parameter
+   */
+  public static void eachEntry(Buffer buffer, Closure<?> closure) {
+    eachEntry(buffer, "", closure);
+  }
+
+  /**
+   * Iterate the entries of the JSON object designated by {@code pointer}.
+   *
+   * @param buffer the buffer containing the JSON document
+   * @param pointer the JSON pointer of the object
+   * @param closure the closure called with the key and the value of each entry, or with a {@link java.util.Map.Entry}
+   *                when it declares a single parameter
+   */
+  public static void eachEntry(Buffer buffer, String pointer, Closure<?> closure) {
+    walk(buffer, pointer, false, entryConsumer(closure));
+  }
+
+  /**
+   * Iterate the entries of the JSON object of the {@code stream} root.
+   *
+   * @param stream the stream of the JSON document
+   * @param closure the closure called with the key and the value of each entry, or with a {@link java.util.Map.Entry}
+   *                when it declares a single parameter
+   * @return a future completed when the stream ends
+   */
+  public static Future<Void> eachEntry(ReadStream<Buffer> stream, Closure<?> closure) {
+    return eachEntry(stream, "", closure);
+  }
+
+  /**
+   * Iterate the entries of the JSON object designated by {@code pointer}.
+   *
+   * @param stream the stream of the JSON document
+   * @param pointer the JSON pointer of the object
+   * @param closure the closure called with the key and the value of each entry, or with a {@link java.util.Map.Entry}
+   *                when it declares a single parameter
+   * @return a future completed when the stream ends or failed when the document is invalid, when the object is
+   *         not found or when the closure throws an exception
+   */
+  public static Future<Void> eachEntry(ReadStream<Buffer> stream, String pointer, Closure<?> closure) {
+    return walk(stream, pointer, false, entryConsumer(closure));
+  }
+
+  private static BiConsumer<String, Object> elementConsumer(Closure<?> closure) {
+    return (name, value) -> closure.call(value);
+  }
+
+  private static BiConsumer<String, Object> entryConsumer(Closure<?> closure) {
+    if (closure.getMaximumNumberOfParameters() >= 2) {
+      return (name, value) -> closure.call(name, value);
+    } else {
+      return (name, value) -> closure.call(new AbstractMap.SimpleImmutableEntry<>(name, value));
+    }
+  }
+
+  private static void walk(Buffer buffer, String pointer, boolean array, BiConsumer<String, Object> consumer) {
+    JsonParser parser = JsonParser.newParser();
+    JsonStreamWalker walker = new JsonStreamWalker(parser, pointer, array, consumer);
+    parser.handler(walker);
+    parser.handle(buffer);
+    parser.end();
+    walker.end();
+  }
+
+  private static Future<Void> walk(ReadStream<Buffer> stream, String pointer, boolean array, BiConsumer<String, Object> consumer) {
+    Promise<Void> promise = Promise.promise();
+    JsonParser parser = JsonParser.newParser(stream);
+    JsonStreamWalker walker = new JsonStreamWalker(parser, pointer, array, consumer);
+    parser.handler(event -> {
+      if (promise.future().isComplete()) {
+        return;
+      }
+      try {
+        walker.handle(event);
+      } catch (Throwable t) {
+        promise.tryFail(t);
+      }
+    });
+    parser.exceptionHandler(promise::tryFail);
+    parser.endHandler(v -> {
+      try {
+        walker.end();
+        promise.tryComplete();
+      } catch (Throwable t) {
+        promise.tryFail(t);
+      }
+    });
+    return promise.future();
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A cache owned by an event loop, with a maximum size and an optional time to live. Entries are evicted in least
+ * recently used order when the cache is full, and expired entries are evicted when they are accessed.
+ * <p>
+ * The cache is not synchronized, it must only be used by the verticle instances it was obtained from, see
+ * {@link LocalCaches}. The subscript operator can be used to get and put values.
+ */
+public final class LocalCache<K, V> {
+
+  private static class Entry<V> {
+    private final V value;
+    private final long deadline;
+    private Entry(V value, long deadline) {
+      this.value = value;
+      this.deadline = deadline;
+    }
+  }
+
+  private final long ttl;
+  private final LinkedHashMap<K, Entry<V>> entries;
+
+  LocalCache(int maxSize, long ttlNanos) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Invalid max size " + maxSize);
+    }
+    if (ttlNanos < 0L) {
+      throw new IllegalArgumentException("Invalid time to live " + ttlNanos);
+    }
+    this.ttl = ttlNanos;
+    this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the value of the {@code key} or {@code null} when there is none or it has expired
+   */
+  public V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (isExpired(entry, System.nanoTime())) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.value;
+  }
+
+  /**
+   * Put a value, its time to live starts now.
+   *
+   * @return the previous value of the {@code key} or {@code null}
+   */
+  public V put(K key, V value) {
+    long now = System.nanoTime();
+    Entry<V> previous = entries.put(key, new Entry<>(value, now + ttl));
+    return previous != null && !isExpired(previous, now) ? previous.value : null;
+  }
+
+  /**
+   * Return the value of the {@code key}, the value is computed by the {@code function} and put in the cache when there
+   * is none. A {@code null} computed value is not put in the cache.
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+    V value = get(key);
+    if (value == null) {
+      value = function.apply(key);
+      if (value != null) {
+        put(key, value);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * @return the removed value of the {@code key} or {@code null}
+   */
+  public V remove(K key) {
+    Entry<V> entry = entries.remove(key);
+    return entry != null && !isExpired(entry, System.nanoTime()) ? entry.value : null;
+  }
+
+  /**
+   * @return the number of entries, after the expired entries have been evicted
+   */
+  public int size() {
+    if (ttl != 0L) {
+      long now = System.nanoTime();
+      for (Iterator<Entry<V>> it = entries.values().iterator();it.hasNext();) {
+        if (isExpired(it.next(), now)) {
+          it.remove();
+        }
+      }
+    }
+    return entries.size();
+  }
+
+  /**
+   * Remove all the entries.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Groovy subscript operator, same as {@link #get}.
+   */
+  public V getAt(K key) {
+    return get(key);
+  }
+
+  /**
+   * Groovy subscript assignment, same as {@link #put}.
+   */
+  public void putAt(K key, V value) {
+    put(key, value);
+  }
+
+  private boolean isExpired(Entry<V> entry, long now) {
+    return ttl != 0L && now - entry.deadline >= 0L;
+  }
+}
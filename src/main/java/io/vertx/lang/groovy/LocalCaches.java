@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import io.vertx.core.Context;
+import io.vertx.core.internal.ContextInternal;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The named {@link LocalCache caches} of a script verticle, bound to the {@code caches} variable of the script.
+ * <p>
+ * The caches are scoped by deployment and event loop: the instances of a deployment running on the same event loop
+ * share the same caches, they are accessed without synchronization. An instance that does not run on an event loop,
+ * e.g a worker, has its own caches. The caches are released when the last instance of their scope is undeployed.
+ *
+ * <pre>
+ * def users = caches.cache('users', maxSize: 1000, ttl: 60_000)
+ * def user = users.computeIfAbsent(id) { loadUser(it) }
+ * </pre>
+ */
+public final class LocalCaches {
+
+  private static final Map<List<Object>, Scope> scopes = new ConcurrentHashMap<>();
+
+  private static class Scope {
+    private final Map<String, LocalCache<?, ?>> caches = new HashMap<>();
+    private int refs;
+  }
+
+  private final ContextInternal context;
+  private Scope scope;
+
+  LocalCaches(Context context) {
+    this.context = (ContextInternal) context;
+  }
+
+  /**
+   * Like {@link #cache(String, int, Duration)} with the {@code maxSize} and the {@code ttl} in milliseconds declared
+   * by the {@code options}, e.g {@code caches.cache('users', maxSize: 1000, ttl: 60_000)}. The cache is unbounded
+   * when no size is declared and its entries do not expire when no time to live is declared.
+   */
+  public <K, V> LocalCache<K, V> cache(Map<String, ?> options, String name) {
+    Number maxSize = (Number) options.get("maxSize");
+    Number ttl = (Number) options.get("ttl");
+    return cache(name, maxSize != null ? maxSize.intValue() : Integer.MAX_VALUE,
+      ttl != null ? Duration.ofMillis(ttl.longValue()) : Duration.ZERO);
+  }
+
+  /**
+   * Get the cache named {@code name}, creating it when it does not exist yet. The cache keeps the size and time to
+   * live it was created with.
+   *
+   * @param name the cache name
+   * @param maxSize the maximum number of entries
+   * @param ttl the time to live of the entries, {@link Duration#ZERO} when entries do not expire
+   * @return the cache
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> LocalCache<K, V> cache(String name, int maxSize, Duration ttl) {
+    Scope current = scope;
+    if (current == null) {
+      scope = current = acquire();
+    }
+    return (LocalCache<K, V>) current.caches.computeIfAbsent(name, n -> new LocalCache<>(maxSize, ttl.toNanos()));
+  }
+
+  private Scope acquire() {
+    List<Object> key = List.of(context.deploymentID(), context.isEventLoopContext() ? context.nettyEventLoop() : context);
+    Scope acquired = scopes.compute(key, (k, s) -> {
+      if (s == null) {
+        s = new Scope();
+      }
+      s.refs++;
+      return s;
+    });
+    context.addCloseHook(completion -> {
+      scopes.computeIfPresent(key, (k, s) -> --s.refs == 0 ? null : s);
+      completion.succeed();
+    });
+    return acquired;
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.VertxThread;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The execution budget of a sandboxed script class, the sandbox compiles a {@link #tick()} call at the beginning of
+ * each loop iteration, closure and method of the script.
+ * <p>
+ * A tick is a counter increment, every {@value #SAMPLE_INTERVAL} ticks the budget is checked:
+ * <ul>
+ *   <li>the number of ticks of the script during a period must not exceed the iterations budget</li>
+ *   <li>the CPU time and the allocated bytes of a run, i.e a sequence of samples taken by a thread without
+ *   interruption, must not exceed the CPU time and allocation budgets, this bounds the time a script can pin a
+ *   thread</li>
+ * </ul>
+ * On a Vert.x thread, a run is the task the thread executes, however long its iterations are. On other threads, a
+ * new run starts when the thread has been idle since the previous sample, i.e it used less than half of the elapsed
+ * time since then.
+ * Once exceeded, each tick throws a {@link ScriptBudgetExceededError} and the deployments of the script are
+ * undeployed. The budget is reset when the script is deployed again.
+ */
+public final class ScriptBudget {
+
+  /**
+   * The name of the static field holding the budget of a sandboxed script class.
+   */
+  public static final String FIELD_NAME = "$vertxBudget";
+
+  private static final Logger log = LoggerFactory.getLogger(ScriptBudget.class);
+  private static final int SAMPLE_INTERVAL = 1024;
+  private static final long RUN_GAP = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private static final ClassValue<Optional<ScriptBudget>> BUDGETS = new ClassValue<Optional<ScriptBudget>>() {
+    @Override
+    protected Optional<ScriptBudget> computeValue(Class<?> type) {
+      try {
+        Field field = type.getField(FIELD_NAME);
+        if (Modifier.isStatic(field.getModifiers()) && field.getType() == ScriptBudget.class) {
+          return Optional.ofNullable((ScriptBudget) field.get(null));
+        }
+      } catch (NoSuchFieldException | IllegalAccessException ignore) {
+      }
+      return Optional.empty();
+    }
+  };
+
+  /**
+   * @param type the script class
+   * @return the budget of a sandboxed script class or {@code null}
+   */
+  public static ScriptBudget of(Class<?> type) {
+    return BUDGETS.get(type).orElse(null);
+  }
+
+  private final long maxIterations;
+  private final long period;
+  private final long maxCpuTime;
+  private final long maxAllocation;
+  private final ThreadLocal<Run> runs = ThreadLocal.withInitial(Run::new);
+  private final Map<String, Vertx> deployments = new ConcurrentHashMap<>();
+  // Racy on purpose, a lost increment only delays the detection
+  private long iterations;
+  private volatile long periodStart = System.nanoTime();
+  private volatile boolean exceeded;
+
+  /**
+   * @param maxIterations the maximum number of ticks per period, {@code 0} for no limit
+   * @param periodMillis the period duration in milliseconds
+   * @param maxCpuTimeMillis the maximum CPU time of a run in milliseconds, {@code 0} for no limit
+   * @param maxAllocation the maximum number of bytes allocated by a run, {@code 0} for no limit
+   */
+  public ScriptBudget(long maxIterations, long periodMillis, long maxCpuTimeMillis, long maxAllocation) {
+    if (periodMillis <= 0L) {
+      throw new IllegalArgumentException("Invalid period " + periodMillis);
+    }
+    this.maxIterations = maxIterations;
+    this.period = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+    this.maxCpuTime = THREADS.isCurrentThreadCpuTimeSupported() ? TimeUnit.MILLISECONDS.toNanos(maxCpuTimeMillis) : 0L;
+    this.maxAllocation = THREADS instanceof com.sun.management.ThreadMXBean ? maxAllocation : 0L;
+  }
+
+  /**
+   * Account an iteration of the script.
+   *
+   * @throws ScriptBudgetExceededError when the budget is exceeded
+   */
+  public void tick() {
+    if (exceeded) {
+      throw new ScriptBudgetExceededError("Script budget exceeded");
+    }
+    long n = ++iterations;
+    if ((n & (SAMPLE_INTERVAL - 1)) == 0) {
+      sample(n);
+    }
+  }
+
+  private void sample(long n) {
+    long now = System.nanoTime();
+    if (now - periodStart >= period) {
+      periodStart = now;
+      iterations = 0L;
+    } else if (maxIterations > 0L && n > maxIterations) {
+      exceed("Script exceeded " + maxIterations + " iterations");
+    }
+    if (maxCpuTime > 0L || maxAllocation > 0L) {
+      Thread thread = Thread.currentThread();
+      long task = thread instanceof VertxThread ? ((VertxThread) thread).startTime() : 0L;
+      long cpu = maxCpuTime > 0L || task == 0L ? cpuTime() : 0L;
+      long allocated = maxAllocation > 0L ? ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(thread.getId()) : 0L;
+      Run run = runs.get();
+      boolean newRun;
+      if (!run.started) {
+        newRun = true;
+      } else if (task != 0L) {
+        // The start time of the task the Vert.x thread executes
+        newRun = task != run.task;
+      } else {
+        long elapsed = now - run.lastSample;
+        // The thread has been idle since the last sample, a new run starts
+        newRun = elapsed >= RUN_GAP && cpu - run.lastCpu < elapsed / 2;
+      }
+      if (newRun) {
+        run.started = true;
+        run.task = task;
+        run.cpu = cpu;
+        run.allocated = allocated;
+      }
+      run.lastSample = now;
+      run.lastCpu = cpu;
+      if (maxCpuTime > 0L && cpu - run.cpu > maxCpuTime) {
+        exceed("Script exceeded " + TimeUnit.NANOSECONDS.toMillis(maxCpuTime) + " ms of CPU time");
+      }
+      if (maxAllocation > 0L && allocated - run.allocated > maxAllocation) {
+        exceed("Script exceeded " + maxAllocation + " allocated bytes");
+      }
+    }
+  }
+
+  private static long cpuTime() {
+    return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0L;
+  }
+
+  private void exceed(String message) {
+    synchronized (this) {
+      if (!exceeded) {
+        exceeded = true;
+        log.warn(message + ", undeploying " + deployments.keySet());
+        deployments.forEach((deploymentID, vertx) -> vertx.undeploy(deploymentID).onFailure(err -> {
+          log.error("Could not undeploy " + deploymentID, err);
+        }));
+      }
+    }
+    throw new ScriptBudgetExceededError(message);
+  }
+
+  /**
+   * Register a deployment of the script, undeployed when the budget is exceeded.
+   */
+  public synchronized void register(Vertx vertx, String deploymentID) {
+    if (exceeded && deployments.isEmpty()) {
+      // The deployments of the script have been undeployed, the script is deployed again
+      exceeded = false;
+      iterations = 0L;
+      periodStart = System.nanoTime();
+    }
+    deployments.put(deploymentID, vertx);
+  }
+
+  /**
+   * Unregister a deployment of the script.
+   */
+  public void unregister(String deploymentID) {
+    deployments.remove(deploymentID);
+  }
+
+  /**
+   * The run of a thread.
+   */
+  private static class Run {
+    boolean started;
+    // The start time of the Vert.x task or 0
+    long task;
+    long lastSample;
+    long lastCpu;
+    // The CPU time and allocated bytes at the start of the run
+    long cpu;
+    long allocated;
+  }
+}
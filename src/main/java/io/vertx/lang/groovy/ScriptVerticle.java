@@ -16,10 +16,10 @@
 package io.vertx.lang.groovy;
 
 import groovy.lang.Binding;
-import groovy.lang.MetaMethod;
 import groovy.lang.Script;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Promise;
+import io.vertx.lang.groovy.impl.ScriptLifecycle;
 
 /**
  * A Vert.x native verticle wrapping a Groovy script, the script will be executed when the Verticle starts.
@@ -29,6 +29,9 @@ import io.vertx.core.Promise;
  *   <li><code>vertx</code>: the {@link io.vertx.core.Vertx} object</li>
  *   <li><code>deploymentID</code>: the deploymentID of this Verticle</li>
  *   <li><code>config</code>: the Verticle config as a <code>Map&lt;String, Object&gt;</code></li>
+ *   <li><code>caches</code>: the {@link LocalCaches} of the verticle</li>
+ *   <li><code>shared</code>: the value returned by the <code>vertxShared</code> method, when the script declares one,
+ *   this method is called once for all the instances of a deployment</li>
  * </ul>
  *
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -36,13 +39,37 @@ import io.vertx.core.Promise;
 public class ScriptVerticle extends AbstractVerticle {
 
   private final Script script;
+  private final ScriptLifecycle lifecycle;
+  private final ScriptLifecycle.Shared shared;
+  private final ScriptBudget budget;
 
   public ScriptVerticle(Script script) {
-    this.script = script;
+    this(script, ScriptLifecycle.of(script.getClass()));
   }
 
-  private static final Class[] EMPTY_PARAMS = {};
-  private static final Class[] FUTURE_PARAMS = {io.vertx.core.Promise.class};
+  /**
+   * Create a verticle with the lifecycle methods already resolved for the script class.
+   *
+   * @param script the script
+   * @param lifecycle the lifecycle methods of the script class
+   */
+  public ScriptVerticle(Script script, ScriptLifecycle lifecycle) {
+    this(script, lifecycle, lifecycle.newShared());
+  }
+
+  /**
+   * Create a verticle with the lifecycle methods already resolved for the script class.
+   *
+   * @param script the script
+   * @param lifecycle the lifecycle methods of the script class
+   * @param shared the {@code vertxShared} value of the deployment instances
+   */
+  public ScriptVerticle(Script script, ScriptLifecycle lifecycle, ScriptLifecycle.Shared shared) {
+    this.script = script;
+    this.lifecycle = lifecycle;
+    this.shared = shared;
+    this.budget = ScriptBudget.of(script.getClass());
+  }
 
   /**
    * Start the verticle instance.
@@ -61,8 +88,24 @@ public class ScriptVerticle extends AbstractVerticle {
       script.setBinding(binding = new Binding());
     }
     binding.setVariable("vertx", vertx);
+    binding.setVariable("caches", new LocalCaches(context));
+    if (budget != null) {
+      String deploymentID = context.deploymentID();
+      budget.register(vertx, deploymentID);
+      // A failed instance is not stopped
+      startPromise.future().onFailure(err -> budget.unregister(deploymentID));
+    }
+    if (shared != null) {
+      binding.setVariable("shared", shared.get(script));
+    }
     script.run();
-    handleLifecycle("vertxStart", startPromise);
+    try {
+      lifecycle.start(script, startPromise);
+    } catch (Exception | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new Exception(t);
+    }
   }
 
   /**
@@ -77,20 +120,15 @@ public class ScriptVerticle extends AbstractVerticle {
    */
   @Override
   public void stop(Promise<Void> stopPromise) throws Exception {
-    handleLifecycle("vertxStop", stopPromise);
-  }
-
-  private void handleLifecycle(String methodName, Promise<Void> promise) {
-    MetaMethod method = script.getMetaClass().getMetaMethod(methodName, EMPTY_PARAMS);
-    if (method != null) {
-      if (method.isValidMethod(FUTURE_PARAMS)) {
-        method.invoke(script, new Object[]{promise});
-      } else if (method.isValidMethod(EMPTY_PARAMS)) {
-        method.invoke(script, EMPTY_PARAMS);
-        promise.complete();
-      }
-    } else {
-      promise.complete();
+    if (budget != null) {
+      budget.unregister(context.deploymentID());
+    }
+    try {
+      lifecycle.stop(script, stopPromise);
+    } catch (Exception | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new Exception(t);
     }
   }
 }
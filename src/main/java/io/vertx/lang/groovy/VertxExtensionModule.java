@@ -2,19 +2,52 @@ package io.vertx.lang.groovy;
 
 import io.vertx.codegen.annotations.DataObject;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.codehaus.groovy.runtime.typehandling.GroovyCastException;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * Extension module for integrating Vert.x common types with Groovy.
  */
 public class VertxExtensionModule {
 
+  /**
+   * Marks a data object class that does not provide a public {@link JsonObject} constructor.
+   */
+  private static final MethodHandle NO_JSON_CONSTRUCTOR = MethodHandles.identity(Object.class);
+
+  /**
+   * The {@link JsonObject} constructor of data object classes, resolved once per class: {@code null} when the class
+   * is not a data object or {@link #NO_JSON_CONSTRUCTOR} when it does not declare such constructor.
+   */
+  private static final ClassValue<MethodHandle> DATA_OBJECT_CONSTRUCTORS = new ClassValue<MethodHandle>() {
+    @Override
+    protected MethodHandle computeValue(Class<?> type) {
+      if (type.getAnnotation(DataObject.class) == null) {
+        return null;
+      }
+      try {
+        return MethodHandles.publicLookup()
+          .findConstructor(type, MethodType.methodType(void.class, JsonObject.class))
+          .asType(MethodType.methodType(Object.class, JsonObject.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        return NO_JSON_CONSTRUCTOR;
+      }
+    }
+  };
+
   /**
    * Convert a JSON like map data structure to a Vert.x data object or a {@link JsonObject}.
    *
@@ -28,21 +61,121 @@ public class VertxExtensionModule {
    */
   public static Object asType(Map map, Class clazz) throws Throwable {
     if (clazz == JsonObject.class) {
-      return new JsonObject(map);
-    } else if (clazz.getAnnotation(DataObject.class) != null) {
-      try {
-        Constructor ctor = clazz.getConstructor(JsonObject.class);
-        JsonObject json = new JsonObject(map);
-        return ctor.newInstance(json);
-      } catch (NoSuchMethodException e) {
-        throw new GroovyCastException("Cannot cast JsonObject to class '" + clazz + "'");
-      } catch (InvocationTargetException e) {
-        throw e.getCause();
-      } catch (Exception e) {
-        throw e;
+      return toJsonObject(map);
+    }
+    MethodHandle ctor = DATA_OBJECT_CONSTRUCTORS.get(clazz);
+    if (ctor == null) {
+      return null;
+    } else if (ctor == NO_JSON_CONSTRUCTOR) {
+      throw new GroovyCastException("Cannot cast JsonObject to class '" + clazz + "'");
+    }
+    return (Object) ctor.invokeExact(toJsonObject(map));
+  }
+
+  /**
+   * Like {@link #toJsonObject(Map, boolean)} without type validation.
+   *
+   * @param map the JSON like map
+   * @return the json object wrapping {@code map}
+   */
+  public static JsonObject toJsonObject(Map map) {
+    return toJsonObject(map, false);
+  }
+
+  /**
+   * Convert a JSON like map data structure to a {@link JsonObject} without copying it.
+   *
+   * <p> The json object wraps the map, nested maps and lists are wrapped by a {@link JsonObject} or a
+   * {@link JsonArray} when they are read. Neither the map nor its nested maps and lists are copied nor modified, so
+   * the json object and the map share their content: a change of one is visible through the other. Use
+   * {@link JsonObject#copy()} to get an independent copy.
+   *
+   * <p> In strict mode the structure is validated up front, without being copied: an {@link IllegalStateException}
+   * is thrown for a key that is not a string, a value that cannot be encoded to JSON or a map or a list containing
+   * itself. {@code GString} values are valid, they are read and encoded as strings.
+   *
+   * @param map the JSON like map
+   * @param strict whether to validate the keys and values
+   * @return the json object wrapping {@code map}
+   */
+  public static JsonObject toJsonObject(Map map, boolean strict) {
+    if (strict) {
+      validateEntries(map, new IdentityHashMap<>());
+    }
+    return new JsonObject(map);
+  }
+
+  /**
+   * Like {@link #toJsonArray(List, boolean)} without type validation.
+   *
+   * @param list the JSON like list
+   * @return the json array wrapping {@code list}
+   */
+  public static JsonArray toJsonArray(List list) {
+    return toJsonArray(list, false);
+  }
+
+  /**
+   * Convert a JSON like list data structure to a {@link JsonArray} without copying it, as described by
+   * {@link #toJsonObject(Map, boolean)}.
+   *
+   * @param list the JSON like list
+   * @param strict whether to validate the values
+   * @return the json array wrapping {@code list}
+   */
+  public static JsonArray toJsonArray(List list, boolean strict) {
+    if (strict) {
+      validateElements(list, new IdentityHashMap<>());
+    }
+    return new JsonArray(list);
+  }
+
+  /**
+   * @param path the containers being validated, to detect the containers nested in themselves
+   */
+  private static void validateEntries(Map<?, ?> map, Map<Object, Boolean> path) {
+    enter(map, path);
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      Object key = entry.getKey();
+      if (!(key instanceof String)) {
+        throw new IllegalStateException("Illegal key type in JsonObject: " + typeOf(key));
       }
+      validate(entry.getValue(), path);
     }
-    return null;
+    path.remove(map);
+  }
+
+  private static void validateElements(List<?> list, Map<Object, Boolean> path) {
+    enter(list, path);
+    for (Object value : list) {
+      validate(value, path);
+    }
+    path.remove(list);
+  }
+
+  private static void enter(Object container, Map<Object, Boolean> path) {
+    if (path.put(container, Boolean.TRUE) != null) {
+      throw new IllegalStateException("Cannot convert a JSON structure containing itself");
+    }
+  }
+
+  private static void validate(Object value, Map<Object, Boolean> path) {
+    if (value instanceof Map) {
+      validateEntries((Map<?, ?>) value, path);
+    } else if (value instanceof List) {
+      validateElements((List<?>) value, path);
+    } else if (value instanceof JsonObject) {
+      validateEntries(((JsonObject) value).getMap(), path);
+    } else if (value instanceof JsonArray) {
+      validateElements(((JsonArray) value).getList(), path);
+    } else if (!(value == null || value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+      || value instanceof byte[] || value instanceof Buffer || value instanceof Instant || value instanceof Enum)) {
+      throw new IllegalStateException("Illegal type in Json: " + typeOf(value));
+    }
+  }
+
+  private static String typeOf(Object o) {
+    return o == null ? "null" : o.getClass().getName();
   }
 
   /**
@@ -70,6 +203,113 @@ public class VertxExtensionModule {
     return prev;
   }
 
+  /**
+   * Read a numeric value of a {@link JsonObject} as an {@code int}, without boxing.
+   *
+   * @param json the json object
+   * @param key the key
+   * @return the value for {@code key} or {@code 0} when it is absent or {@code null}
+   */
+  public static int intAt(JsonObject json, String key) {
+    return intAt(json, key, 0);
+  }
+
+  /**
+   * Read a numeric value of a {@link JsonObject} as an {@code int}, without boxing.
+   *
+   * @param json the json object
+   * @param key the key
+   * @param def the value returned when {@code key} is absent or {@code null}
+   * @return the value for {@code key}
+   */
+  public static int intAt(JsonObject json, String key, int def) {
+    Number value = (Number) json.getValue(key);
+    return value != null ? value.intValue() : def;
+  }
+
+  /**
+   * Read a numeric value of a {@link JsonObject} as a {@code long}, without boxing.
+   *
+   * @param json the json object
+   * @param key the key
+   * @return the value for {@code key} or {@code 0} when it is absent or {@code null}
+   */
+  public static long longAt(JsonObject json, String key) {
+    return longAt(json, key, 0L);
+  }
+
+  /**
+   * Read a numeric value of a {@link JsonObject} as a {@code long}, without boxing.
+   *
+   * @param json the json object
+   * @param key the key
+   * @param def the value returned when {@code key} is absent or {@code null}
+   * @return the value for {@code key}
+   */
+  public static long longAt(JsonObject json, String key, long def) {
+    Number value = (Number) json.getValue(key);
+    return value != null ? value.longValue() : def;
+  }
+
+  /**
+   * Read a numeric value of a {@link JsonObject} as a {@code double}, without boxing.
+   *
+   * @param json the json object
+   * @param key the key
+   * @return the value for {@code key} or {@code 0} when it is absent or {@code null}
+   */
+  public static double doubleAt(JsonObject json, String key) {
+    return doubleAt(json, key, 0D);
+  }
+
+  /**
+   * Read a numeric value of a {@link JsonObject} as a {@code double}, without boxing.
+   *
+   * @param json the json object
+   * @param key the key
+   * @param def the value returned when {@code key} is absent or {@code null}
+   * @return the value for {@code key}
+   */
+  public static double doubleAt(JsonObject json, String key, double def) {
+    Number value = (Number) json.getValue(key);
+    return value != null ? value.doubleValue() : def;
+  }
+
+  /**
+   * Read a boolean value of a {@link JsonObject}.
+   *
+   * @param json the json object
+   * @param key the key
+   * @return the value for {@code key} or {@code false} when it is absent or {@code null}
+   */
+  public static boolean booleanAt(JsonObject json, String key) {
+    return booleanAt(json, key, false);
+  }
+
+  /**
+   * Read a boolean value of a {@link JsonObject}.
+   *
+   * @param json the json object
+   * @param key the key
+   * @param def the value returned when {@code key} is absent or {@code null}
+   * @return the value for {@code key}
+   */
+  public static boolean booleanAt(JsonObject json, String key, boolean def) {
+    Boolean value = (Boolean) json.getValue(key);
+    return value != null ? value : def;
+  }
+
+  /**
+   * Read a string value of a {@link JsonObject}.
+   *
+   * @param json the json object
+   * @param key the key
+   * @return the value for {@code key} or {@code null} when it is absent
+   */
+  public static String stringAt(JsonObject json, String key) {
+    return json.getString(key);
+  }
+
   /**
    * Subscript operator for {@link JsonArray}, the read part.
    *
@@ -92,6 +332,45 @@ public class VertxExtensionModule {
     }
   }
 
+  /**
+   * Read a numeric value of a {@link JsonArray} as an {@code int}, without boxing, with the index semantic of
+   * {@link #getAt(JsonArray, int)}.
+   *
+   * @param json the json array
+   * @param idx the index, a negative index counts from the end of the array
+   * @return the value at {@code idx} or {@code 0} when it is {@code null} or {@code idx} is greater than the last index
+   */
+  public static int intAt(JsonArray json, int idx) {
+    Number value = (Number) getAt(json, idx);
+    return value != null ? value.intValue() : 0;
+  }
+
+  /**
+   * Read a numeric value of a {@link JsonArray} as a {@code long}, without boxing, with the index semantic of
+   * {@link #getAt(JsonArray, int)}.
+   *
+   * @param json the json array
+   * @param idx the index, a negative index counts from the end of the array
+   * @return the value at {@code idx} or {@code 0} when it is {@code null} or {@code idx} is greater than the last index
+   */
+  public static long longAt(JsonArray json, int idx) {
+    Number value = (Number) getAt(json, idx);
+    return value != null ? value.longValue() : 0L;
+  }
+
+  /**
+   * Read a numeric value of a {@link JsonArray} as a {@code double}, without boxing, with the index semantic of
+   * {@link #getAt(JsonArray, int)}.
+   *
+   * @param json the json array
+   * @param idx the index, a negative index counts from the end of the array
+   * @return the value at {@code idx} or {@code 0} when it is {@code null} or {@code idx} is greater than the last index
+   */
+  public static double doubleAt(JsonArray json, int idx) {
+    Number value = (Number) getAt(json, idx);
+    return value != null ? value.doubleValue() : 0D;
+  }
+
   /**
    * {@code <<} operator for {@link JsonObject}.
    *
@@ -102,6 +381,189 @@ public class VertxExtensionModule {
     json.add(value);
   }
 
+  /**
+   * {@code <<} operator for {@link JsonArray} appending all the values of an {@code int} array.
+   *
+   * @param json the json array
+   * @param values the values to append
+   * @return the json array
+   */
+  public static JsonArray leftShift(JsonArray json, int[] values) {
+    List<Object> list = reserve(json, values.length);
+    for (int value : values) {
+      list.add(value);
+    }
+    return json;
+  }
+
+  /**
+   * {@code <<} operator for {@link JsonArray} appending all the values of a {@code long} array.
+   *
+   * @param json the json array
+   * @param values the values to append
+   * @return the json array
+   */
+  public static JsonArray leftShift(JsonArray json, long[] values) {
+    List<Object> list = reserve(json, values.length);
+    for (long value : values) {
+      list.add(value);
+    }
+    return json;
+  }
+
+  /**
+   * {@code <<} operator for {@link JsonArray} appending all the values of a {@code double} array.
+   *
+   * @param json the json array
+   * @param values the values to append
+   * @return the json array
+   */
+  public static JsonArray leftShift(JsonArray json, double[] values) {
+    List<Object> list = reserve(json, values.length);
+    for (double value : values) {
+      list.add(value);
+    }
+    return json;
+  }
+
+  private static List<Object> reserve(JsonArray json, int length) {
+    List<Object> list = json.getList();
+    if (list instanceof ArrayList) {
+      ((ArrayList<Object>) list).ensureCapacity(list.size() + length);
+    }
+    return list;
+  }
+
+  /**
+   * Copy the numeric elements of a {@link JsonArray} to an {@code int} array.
+   *
+   * @param json the json array, its elements must be numbers
+   * @return the array of the values
+   */
+  public static int[] toIntArray(JsonArray json) {
+    List<Object> list = json.getList();
+    int[] array = new int[list.size()];
+    for (int i = 0;i < array.length;i++) {
+      array[i] = ((Number) list.get(i)).intValue();
+    }
+    return array;
+  }
+
+  /**
+   * Copy the numeric elements of a {@link JsonArray} to a {@code long} array.
+   *
+   * @param json the json array, its elements must be numbers
+   * @return the array of the values
+   */
+  public static long[] toLongArray(JsonArray json) {
+    List<Object> list = json.getList();
+    long[] array = new long[list.size()];
+    for (int i = 0;i < array.length;i++) {
+      array[i] = ((Number) list.get(i)).longValue();
+    }
+    return array;
+  }
+
+  /**
+   * Copy the numeric elements of a {@link JsonArray} to a {@code double} array.
+   *
+   * @param json the json array, its elements must be numbers
+   * @return the array of the values
+   */
+  public static double[] toDoubleArray(JsonArray json) {
+    List<Object> list = json.getList();
+    double[] array = new double[list.size()];
+    for (int i = 0;i < array.length;i++) {
+      array[i] = ((Number) list.get(i)).doubleValue();
+    }
+    return array;
+  }
+
+  /**
+   * Map the numeric elements of a {@link JsonArray} to a {@code double} array, statically compiled code can pass
+   * a lambda expression that does not box the values.
+   *
+   * @param json the json array, its elements must be numbers
+   * @param mapper the function applied to each element
+   * @return the array of the mapped values
+   */
+  public static double[] collectDouble(JsonArray json, DoubleUnaryOperator mapper) {
+    List<Object> list = json.getList();
+    double[] array = new double[list.size()];
+    for (int i = 0;i < array.length;i++) {
+      array[i] = mapper.applyAsDouble(((Number) list.get(i)).doubleValue());
+    }
+    return array;
+  }
+
+  /**
+   * Sum the numeric elements of a {@link JsonArray} as {@code long} values.
+   *
+   * @param json the json array, its elements must be numbers
+   * @return the sum of the elements, {@code 0} when the array is empty
+   */
+  public static long longSum(JsonArray json) {
+    List<Object> list = json.getList();
+    long sum = 0;
+    for (int i = 0;i < list.size();i++) {
+      sum += ((Number) list.get(i)).longValue();
+    }
+    return sum;
+  }
+
+  /**
+   * Sum the numeric elements of a {@link JsonArray} as {@code double} values.
+   *
+   * @param json the json array, its elements must be numbers
+   * @return the sum of the elements, {@code 0} when the array is empty
+   */
+  public static double doubleSum(JsonArray json) {
+    List<Object> list = json.getList();
+    double sum = 0;
+    for (int i = 0;i < list.size();i++) {
+      sum += ((Number) list.get(i)).doubleValue();
+    }
+    return sum;
+  }
+
+  /**
+   * Compute the minimum of the numeric elements of a {@link JsonArray} as {@code double} values.
+   *
+   * @param json the json array, its elements must be numbers
+   * @return the minimum of the elements
+   * @throws NoSuchElementException when the array is empty
+   */
+  public static double doubleMin(JsonArray json) {
+    List<Object> list = json.getList();
+    if (list.isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    double min = Double.POSITIVE_INFINITY;
+    for (int i = 0;i < list.size();i++) {
+      min = Math.min(min, ((Number) list.get(i)).doubleValue());
+    }
+    return min;
+  }
+
+  /**
+   * Compute the maximum of the numeric elements of a {@link JsonArray} as {@code double} values.
+   *
+   * @param json the json array, its elements must be numbers
+   * @return the maximum of the elements
+   * @throws NoSuchElementException when the array is empty
+   */
+  public static double doubleMax(JsonArray json) {
+    List<Object> list = json.getList();
+    if (list.isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    double max = Double.NEGATIVE_INFINITY;
+    for (int i = 0;i < list.size();i++) {
+      max = Math.max(max, ((Number) list.get(i)).doubleValue());
+    }
+    return max;
+  }
+
  /**
    * Coerces an {@link AsyncResult} as a boolean value according to Groovy-Truth.
    *
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import groovy.lang.GroovySystem;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A persistent cache of the bytecode generated for verticle scripts.
+ * <p>
+ * Each entry is a directory named after the digest of the script name, the script content, the Groovy version and
+ * the compiler configuration fingerprint. It contains the class files generated for the script (inner classes and
+ * closures included) and a manifest listing the other sources compiled along with the script with their digest,
+ * an entry is only used when these sources are unchanged.
+ */
+public class BytecodeCache {
+
+  private static final Logger log = LoggerFactory.getLogger(BytecodeCache.class);
+
+  private static final String MANIFEST = "manifest.properties";
+  private static final String CLASS_SUFFIX = ".class";
+
+  private final Path dir;
+
+  public BytecodeCache(Path dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Load a script from the cache.
+   *
+   * @param name the script name
+   * @param digest the script content digest
+   * @param configuration the compiler configuration fingerprint
+   * @param parent the deployment class loader
+   * @return the script or {@code null} when the cache has no valid entry
+   */
+  public CompiledScript load(String name, String digest, String configuration, ClassLoader parent) {
+    Path entry = dir.resolve(entryName(name, digest, configuration));
+    try {
+      Set<URI> sources = validSources(entry);
+      if (sources == null) {
+        return null;
+      }
+      Properties manifest = manifest(entry);
+      Map<String, byte[]> bytecode = new HashMap<>();
+      try (Stream<Path> files = Files.list(entry)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          String fileName = file.getFileName().toString();
+          if (fileName.endsWith(CLASS_SUFFIX)) {
+            bytecode.put(fileName.substring(0, fileName.length() - CLASS_SUFFIX.length()), Files.readAllBytes(file));
+          }
+        }
+      }
+      BytecodeClassLoader loader = new BytecodeClassLoader(parent, bytecode);
+      Class<?> mainClass = loader.loadClass(manifest.getProperty("main"));
+      return new CompiledScript(mainClass, sources, null);
+    } catch (Exception e) {
+      log.warn("Ignoring invalid Groovy bytecode cache entry " + entry, e);
+      return null;
+    }
+  }
+
+  /**
+   * Store a freshly compiled script in the cache, failures are logged and otherwise ignored.
+   *
+   * @param name the script name
+   * @param digest the script content digest
+   * @param configuration the compiler configuration fingerprint
+   * @param script the compiled script, with its bytecode
+   */
+  public void store(String name, String digest, String configuration, CompiledScript script) {
+    if (script.bytecode() == null) {
+      return;
+    }
+    Path entry = dir.resolve(entryName(name, digest, configuration));
+    Path tmp = null;
+    try {
+      if (validSources(entry) != null) {
+        return;
+      }
+      Files.createDirectories(dir);
+      tmp = Files.createTempDirectory(dir, ".tmp");
+      Properties manifest = new Properties();
+      manifest.setProperty("main", script.mainClass().getName());
+      manifest.setProperty("groovy", GroovySystem.getVersion());
+      int idx = 0;
+      for (URI uri : script.sources()) {
+        manifest.setProperty("source." + idx, uri.toString());
+        if ("file".equals(uri.getScheme()) || "jar".equals(uri.getScheme())) {
+          manifest.setProperty("source." + idx + ".digest", ScriptDigest.sha256(uri.toURL()));
+        }
+        idx++;
+      }
+      for (Map.Entry<String, byte[]> clazz : script.bytecode().entrySet()) {
+        Files.write(tmp.resolve(clazz.getKey() + CLASS_SUFFIX), clazz.getValue());
+      }
+      try (OutputStream out = Files.newOutputStream(tmp.resolve(MANIFEST))) {
+        manifest.store(out, name);
+      }
+      if (Files.exists(entry)) {
+        // A dependency of the script changed since the entry was stored, move the stale entry aside so the fresh
+        // one can replace it, a concurrent load misses the cache meanwhile
+        Path stale = Files.createTempDirectory(dir, ".stale");
+        Files.delete(stale);
+        move(entry, stale);
+        delete(stale);
+      }
+      move(tmp, entry);
+      tmp = null;
+    } catch (FileAlreadyExistsException ignore) {
+      // Concurrently stored by another process
+    } catch (Exception e) {
+      log.warn("Could not store " + name + " in the Groovy bytecode cache " + dir, e);
+    } finally {
+      if (tmp != null) {
+        delete(tmp);
+      }
+    }
+  }
+
+  private static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target);
+    }
+  }
+
+  private static Properties manifest(Path entry) throws IOException {
+    Properties manifest = new Properties();
+    try (InputStream in = Files.newInputStream(entry.resolve(MANIFEST))) {
+      manifest.load(in);
+    }
+    return manifest;
+  }
+
+  /**
+   * @return the sources of a cache entry or {@code null} when the entry is absent or one of its sources changed
+   */
+  private static Set<URI> validSources(Path entry) throws IOException {
+    if (!Files.isRegularFile(entry.resolve(MANIFEST))) {
+      return null;
+    }
+    Properties manifest = manifest(entry);
+    Set<URI> sources = new LinkedHashSet<>();
+    for (int i = 0;manifest.containsKey("source." + i);i++) {
+      URI uri = URI.create(manifest.getProperty("source." + i));
+      String expected = manifest.getProperty("source." + i + ".digest");
+      if (expected != null) {
+        String actual;
+        try {
+          actual = ScriptDigest.sha256(uri.toURL());
+        } catch (IOException e) {
+          // Removed source
+          return null;
+        }
+        if (!expected.equals(actual)) {
+          return null;
+        }
+      }
+      sources.add(uri);
+    }
+    return sources;
+  }
+
+  private static String entryName(String name, String digest, String configuration) {
+    String material = name + '\n' + digest + '\n' + GroovySystem.getVersion() + '\n' + configuration;
+    return ScriptDigest.sha256(material.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void delete(Path tmp) {
+    try (Stream<Path> files = Files.list(tmp)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.deleteIfExists(file);
+      }
+      Files.deleteIfExists(tmp);
+    } catch (IOException ignore) {
+    }
+  }
+
+  /**
+   * Defines the cached classes, they take precedence over the parent class loader like the classes of a
+   * {@link groovy.lang.GroovyClassLoader} would.
+   */
+  private static class BytecodeClassLoader extends ClassLoader {
+
+    private final Map<String, byte[]> bytecode;
+
+    BytecodeClassLoader(ClassLoader parent, Map<String, byte[]> bytecode) {
+      super(parent);
+      this.bytecode = bytecode;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> clazz = findLoadedClass(name);
+        if (clazz == null) {
+          byte[] code = bytecode.get(name);
+          if (code == null) {
+            return super.loadClass(name, resolve);
+          }
+          clazz = defineClass(name, code, 0, code.length);
+        }
+        if (resolve) {
+          resolveClass(clazz);
+        }
+        return clazz;
+      }
+    }
+  }
+}
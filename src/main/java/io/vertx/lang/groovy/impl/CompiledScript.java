@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The outcome of compiling a verticle script: the main class, the sources that were compiled along with it
+ * and, right after compilation, the generated bytecode.
+ */
+public class CompiledScript {
+
+  private final Class<?> mainClass;
+  private final Set<URI> sources;
+  private final Map<String, byte[]> bytecode;
+
+  public CompiledScript(Class<?> mainClass, Set<URI> sources, Map<String, byte[]> bytecode) {
+    this.mainClass = mainClass;
+    this.sources = Collections.unmodifiableSet(sources);
+    this.bytecode = bytecode != null ? Collections.unmodifiableMap(bytecode) : null;
+  }
+
+  /**
+   * @return the class of the script
+   */
+  public Class<?> mainClass() {
+    return mainClass;
+  }
+
+  /**
+   * @return the URI of the script and of the sources it depends on, when they were compiled along with it
+   */
+  public Set<URI> sources() {
+    return sources;
+  }
+
+  /**
+   * @return the bytecode of all the classes generated for the script, keyed by class name, or {@code null} when
+   *         the classes were not compiled by this process or the bytecode has been released
+   */
+  public Map<String, byte[]> bytecode() {
+    return bytecode;
+  }
+
+  /**
+   * @return a copy of this script that does not retain the generated bytecode
+   */
+  public CompiledScript releaseBytecode() {
+    return bytecode == null ? this : new CompiledScript(mainClass, sources, null);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import java.lang.ref.ReferenceQueue;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A bounded LRU cache of the compiled verticle scripts.
+ * <p>
+ * Entries are keyed by the deployment class loader, the resolved script URL, the digest of the script content
+ * and the fingerprint of the compiler configuration, so a changed script or configuration is never served from
+ * the cache.
+ */
+public class CompiledScriptCache {
+
+  private final int maxSize;
+  private final LinkedHashMap<Key, Supplier<CompiledScript>> entries;
+  private final ReferenceQueue<ClassLoader> cleared = new ReferenceQueue<>();
+
+  /**
+   * @param maxSize the maximum number of compiled scripts to retain, {@code 0} disables the cache
+   */
+  public CompiledScriptCache(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Invalid cache size " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Supplier<CompiledScript>> eldest) {
+        return size() > CompiledScriptCache.this.maxSize;
+      }
+    };
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  public synchronized CompiledScript get(Key key) {
+    purge();
+    Supplier<CompiledScript> ref = entries.get(key);
+    if (ref == null) {
+      return null;
+    }
+    CompiledScript script = ref.get();
+    if (script == null) {
+      entries.remove(key);
+    }
+    return script;
+  }
+
+  public synchronized void put(Key key, CompiledScript script) {
+    if (maxSize > 0) {
+      purge();
+      ClassLoader loader = key.loader.get();
+      if (loader != null) {
+        Key registered = new Key(new LoaderReferences.Key(loader, cleared), key.url, key.digest, key.configuration);
+        entries.put(registered, LoaderReferences.value(loader, script.releaseBytecode()));
+      }
+    }
+  }
+
+  /**
+   * Remove the scripts depending on a source.
+   *
+   * @param source the source URI
+   */
+  public void invalidate(URI source) {
+    invalidate(script -> script.sources().contains(source));
+  }
+
+  /**
+   * Remove the scripts matching a predicate.
+   *
+   * @param predicate the predicate
+   */
+  public synchronized void invalidate(Predicate<CompiledScript> predicate) {
+    entries.values().removeIf(ref -> {
+      CompiledScript script = ref.get();
+      return script == null || predicate.test(script);
+    });
+  }
+
+  public synchronized int size() {
+    purge();
+    return entries.size();
+  }
+
+  private void purge() {
+    if (cleared.poll() != null) {
+      while (cleared.poll() != null) {
+        // Drain
+      }
+      entries.keySet().removeIf(key -> key.loader.isCleared());
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /**
+   * The identity of a compiled script.
+   */
+  public static final class Key {
+
+    private final LoaderReferences.Key loader;
+    private final String url;
+    private final String digest;
+    private final String configuration;
+
+    /**
+     * @param loader the deployment class loader, compared by identity and referenced weakly
+     * @param url the resolved script url
+     * @param digest the digest of the script content
+     * @param configuration the fingerprint of the effective compiler configuration
+     */
+    public Key(ClassLoader loader, String url, String digest, String configuration) {
+      this(new LoaderReferences.Key(loader), url, digest, configuration);
+    }
+
+    private Key(LoaderReferences.Key loader, String url, String digest, String configuration) {
+      this.loader = loader;
+      this.url = Objects.requireNonNull(url);
+      this.digest = Objects.requireNonNull(digest);
+      this.configuration = Objects.requireNonNull(configuration);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof Key) {
+        Key that = (Key) obj;
+        return loader.equals(that.loader) && url.equals(that.url) && digest.equals(that.digest) && configuration.equals(that.configuration);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(loader, url, digest, configuration);
+    }
+  }
+}
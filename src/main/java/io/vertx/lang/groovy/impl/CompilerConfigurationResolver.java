@@ -0,0 +1,294 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import groovy.lang.Closure;
+import groovy.lang.GroovyClassLoader;
+import groovy.util.ConfigObject;
+import groovy.util.ConfigSlurper;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.lang.groovy.transform.DataObjectConversionCustomizer;
+import io.vertx.lang.groovy.transform.ScriptBudgetCustomizer;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.SecureASTCustomizer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the Groovy compiler configuration of a class loader.
+ * <p>
+ * The configuration is read from the resource named by the {@code vertx.groovy.compilerConfiguration} system property,
+ * or from the {@code compilerConfiguration.groovy} / {@code compilerConfiguration.properties} resources. Resolved
+ * configurations are memoized per class loader and resource, an entry is reused until the resource content changes.
+ * The configurations memoized for a class loader that is not permanent are held softly, see {@link LoaderReferences}.
+ * A Groovy configuration whose customizer is stateful can opt out by declaring {@code cacheable = false}. A Groovy
+ * configuration declaring {@code dataObjectConversion = true} compiles the conversions of map literals to data objects
+ * with {@link DataObjectConversionCustomizer}. A Groovy configuration declaring a {@code sandbox} block compiles the
+ * scripts with a {@link SecureASTCustomizer} and the execution budget of {@link ScriptBudgetCustomizer}.
+ *
+ * @author Alexander Klein
+ * @author Danny Kirchmeier
+ */
+public class CompilerConfigurationResolver {
+
+  public static final String CONFIGURATION_PROPERTY = "vertx.groovy.compilerConfiguration";
+
+  private static final Logger log = LoggerFactory.getLogger(CompilerConfigurationResolver.class);
+  private static final String DEFAULT_FINGERPRINT = "default";
+  private static final long DEFAULT_SANDBOX_MAX_ITERATIONS = 10_000_000L;
+  private static final long DEFAULT_SANDBOX_PERIOD = 1000L;
+  private static final long DEFAULT_SANDBOX_MAX_CPU_TIME = 1000L;
+
+  // The resolved configuration references the class loader through the classes of its customizer
+  private final Map<ClassLoader, Map<String, Supplier<Resolved>>> cache = new WeakHashMap<>();
+  private final ScriptResources resources;
+
+  public CompilerConfigurationResolver() {
+    this(new ScriptResources(0L));
+  }
+
+  /**
+   * @param resources the resources used to find the configuration resource
+   */
+  public CompilerConfigurationResolver(ScriptResources resources) {
+    this.resources = resources;
+  }
+
+  /**
+   * Resolve the compiler configuration of a class loader.
+   *
+   * @param cl the class loader
+   * @return the resolved configuration
+   */
+  public Resolved resolve(ClassLoader cl) throws Exception {
+    URL url = findConfigurationResource(cl);
+    String cacheKey = url != null ? url.toExternalForm() : DEFAULT_FINGERPRINT;
+    Resolved cached;
+    synchronized (this) {
+      Map<String, Supplier<Resolved>> entries = cache.get(cl);
+      Supplier<Resolved> ref = entries != null ? entries.get(cacheKey) : null;
+      cached = ref != null ? ref.get() : null;
+    }
+    // The timestamp of a resource can remain the same after a change, only its content identifies it
+    byte[] content = url != null ? ScriptDigest.read(url) : null;
+    String fingerprint = content != null ? ScriptDigest.sha256(content) : DEFAULT_FINGERPRINT;
+    if (cached != null && cached.fingerprint.equals(fingerprint)) {
+      return cached;
+    }
+    Resolved resolved = load(cl, url, content, fingerprint);
+    if (resolved.cacheable) {
+      synchronized (this) {
+        cache.computeIfAbsent(cl, k -> new HashMap<>()).put(cacheKey, LoaderReferences.value(cl, resolved));
+      }
+    }
+    return resolved;
+  }
+
+  /**
+   * Discard all the memoized configurations.
+   */
+  public synchronized void clear() {
+    cache.clear();
+  }
+
+  private Resolved load(ClassLoader cl, URL url, byte[] content, String fingerprint) {
+    Closure customizer = null;
+    boolean cacheable = true;
+    boolean dataObjectConversion = false;
+    Map<?, ?> sandbox = null;
+    Properties properties = new Properties();
+    GroovyClassLoader slurperLoader = null;
+    if (url != null) {
+      log.trace("Configuring groovy compiler with " + url);
+      try {
+        if (url.getFile().toLowerCase().endsWith(".groovy")) {
+          ConfigSlurper slurper = new ConfigSlurper();
+          slurperLoader = new GroovyClassLoader(cl);
+          slurper.setClassLoader(slurperLoader);
+          ConfigObject cObject = slurper.parse(url);
+          Object c = cObject.remove("customizer");
+          if (c instanceof Closure<?>) {
+            customizer = (Closure) c;
+          }
+          Object flag = cObject.remove("cacheable");
+          if (Boolean.FALSE.equals(flag)) {
+            cacheable = false;
+          }
+          dataObjectConversion = Boolean.TRUE.equals(cObject.remove("dataObjectConversion"));
+          Object s = cObject.remove("sandbox");
+          if (s instanceof Map<?, ?>) {
+            sandbox = (Map<?, ?>) s;
+          }
+          properties.putAll(cObject.toProperties());
+        } else {
+          properties.load(new ByteArrayInputStream(content));
+        }
+      } catch(Exception e) {
+        log.error("Error loading Groovy CompilerConfiguration properties from " + url, e);
+      }
+    } else {
+      log.trace("No groovy configuration file found.");
+    }
+
+    CompilerConfiguration compilerCfg = new CompilerConfiguration(CompilerConfiguration.DEFAULT);
+    if(properties.size() != 0){
+      compilerCfg.configure(properties);
+    }
+    if (dataObjectConversion) {
+      compilerCfg.addCompilationCustomizers(new DataObjectConversionCustomizer());
+    }
+    if (sandbox != null) {
+      compilerCfg.addCompilationCustomizers(secureCustomizer(sandbox), budgetCustomizer(sandbox));
+    }
+
+    try {
+      if (customizer != null) {
+        Object result = customizer.call(compilerCfg);
+        // Expectation: If result isn't a CompilerConfiguration, the original one has been modified
+        if(result instanceof CompilerConfiguration)
+          compilerCfg = (CompilerConfiguration) result;
+      }
+    } finally {
+      if (slurperLoader != null) {
+        // The configuration classes remain usable, only the loader resources are released
+        try {
+          slurperLoader.close();
+        } catch (IOException ignore) {
+        }
+      }
+    }
+    return new Resolved(compilerCfg, fingerprint, cacheable);
+  }
+
+  private static SecureASTCustomizer secureCustomizer(Map<?, ?> sandbox) {
+    SecureASTCustomizer secure = new SecureASTCustomizer();
+    secure.setIndirectImportCheckEnabled(true);
+    List<String> list;
+    if ((list = names(sandbox, "allowedImports")) != null) {
+      secure.setAllowedImports(list);
+    }
+    if ((list = names(sandbox, "allowedStarImports")) != null) {
+      secure.setAllowedStarImports(list);
+    }
+    if ((list = names(sandbox, "allowedStaticImports")) != null) {
+      secure.setAllowedStaticImports(list);
+    }
+    if ((list = names(sandbox, "allowedStaticStarImports")) != null) {
+      secure.setAllowedStaticStarImports(list);
+    }
+    if ((list = names(sandbox, "allowedReceivers")) != null) {
+      secure.setAllowedReceivers(list);
+    }
+    if ((list = names(sandbox, "disallowedReceivers")) != null) {
+      secure.setDisallowedReceivers(list);
+    }
+    return secure;
+  }
+
+  private static ScriptBudgetCustomizer budgetCustomizer(Map<?, ?> sandbox) {
+    return new ScriptBudgetCustomizer(
+      number(sandbox, "maxIterations", DEFAULT_SANDBOX_MAX_ITERATIONS),
+      number(sandbox, "period", DEFAULT_SANDBOX_PERIOD),
+      number(sandbox, "maxCpuTime", DEFAULT_SANDBOX_MAX_CPU_TIME),
+      number(sandbox, "maxAllocation", 0L));
+  }
+
+  private static List<String> names(Map<?, ?> sandbox, String key) {
+    Object value = sandbox.get(key);
+    if (value instanceof Collection<?>) {
+      List<String> names = new ArrayList<>();
+      for (Object name : (Collection<?>) value) {
+        names.add(name instanceof Class<?> ? ((Class<?>) name).getName() : String.valueOf(name));
+      }
+      return names;
+    }
+    return null;
+  }
+
+  private static long number(Map<?, ?> sandbox, String key, long def) {
+    Object value = sandbox.get(key);
+    return value instanceof Number ? ((Number) value).longValue() : def;
+  }
+
+  /**
+   * Find the compiler configuration resource of a class loader.
+   *
+   * @param cl the class loader
+   * @return the resource or {@code null}
+   */
+  public URL findConfigurationResource(ClassLoader cl) {
+    try{
+      String prop = System.getProperty(CONFIGURATION_PROPERTY);
+      if(prop != null) {
+        return resources.resource(cl, prop);
+      }
+    } catch(SecurityException ignored){
+    }
+    URL url = resources.resource(cl, "compilerConfiguration.groovy");
+    if(url == null) {
+      url = resources.resource(cl, "compilerConfiguration.properties");
+    }
+    return url;
+  }
+
+  /**
+   * A resolved compiler configuration.
+   */
+  public static class Resolved {
+
+    private final CompilerConfiguration configuration;
+    private final String fingerprint;
+    private final boolean cacheable;
+
+    Resolved(CompilerConfiguration configuration, String fingerprint, boolean cacheable) {
+      this.configuration = configuration;
+      this.fingerprint = fingerprint;
+      this.cacheable = cacheable;
+    }
+
+    /**
+     * @return the compiler configuration
+     */
+    public CompilerConfiguration configuration() {
+      return configuration;
+    }
+
+    /**
+     * @return the digest of the configuration resource, identifying the effective configuration
+     */
+    public String fingerprint() {
+      return fingerprint;
+    }
+
+    /**
+     * @return whether the configuration can be shared by several compilations
+     */
+    public boolean isCacheable() {
+      return cacheable;
+    }
+  }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event bus codec for the maps and lists Groovy verticles send, so they do not need to be converted to
+ * {@link JsonObject} or {@link JsonArray} nor be serialized.
+ * <p>
+ * For local delivery, an immutable collection, such as those returned by {@code Map.of} or {@code List.of}, holding
+ * only immutable values is passed by reference. Other collections are copied, including the read-only views returned
+ * by {@code asImmutable()} or {@code Collections.unmodifiableMap}, their backing collection can still be modified by
+ * the sender. For clustered delivery, collections are encoded with a compact tagged binary format.
+ * <p>
+ * The codec is the default codec of these classes for every verticle of the event bus, including Java verticles,
+ * so it is not registered unless the {@code vertx.groovy.collectionCodec} system property is {@code true} or
+ * {@link #register(EventBus)} is called explicitly.
+ */
+public class GroovyCollectionCodec implements MessageCodec<Object, Object> {
+
+  private static final String NAME_PREFIX = "groovy-collection:";
+
+  /**
+   * The modifiable collection classes, their instances are copied on local delivery.
+   */
+  private static final List<Class<?>> MODIFIABLE_CLASSES = Arrays.asList(
+    LinkedHashMap.class,
+    HashMap.class,
+    ArrayList.class
+  );
+
+  /**
+   * The immutable collection classes, such as those returned by {@code Map.of} or {@code List.of}, their instances
+   * can be shared when their values are immutable.
+   */
+  private static final Set<Class<?>> IMMUTABLE_CLASSES = new HashSet<>(Arrays.asList(
+    Collections.emptyMap().getClass(),
+    Collections.emptyList().getClass(),
+    Map.of().getClass(),
+    Map.of("k", "v").getClass(),
+    List.of().getClass(),
+    List.of("e").getClass()
+  ));
+
+  /**
+   * The read-only views, such as those returned by {@code asImmutable()}, their instances are copied on local delivery
+   * since the backing collection remains modifiable.
+   */
+  private static final Set<Class<?>> UNMODIFIABLE_VIEW_CLASSES = new HashSet<>(Arrays.asList(
+    Collections.unmodifiableMap(new HashMap<>()).getClass(),
+    Collections.unmodifiableList(new ArrayList<>()).getClass(),
+    Collections.unmodifiableList(new LinkedList<>()).getClass()
+  ));
+
+  private static final byte NULL = 0;
+  private static final byte TRUE = 1;
+  private static final byte FALSE = 2;
+  private static final byte INT = 3;
+  private static final byte LONG = 4;
+  private static final byte FLOAT = 5;
+  private static final byte DOUBLE = 6;
+  private static final byte STRING = 7;
+  private static final byte BIG_INTEGER = 8;
+  private static final byte BIG_DECIMAL = 9;
+  private static final byte BYTES = 10;
+  private static final byte MAP = 11;
+  private static final byte LIST = 12;
+  private static final byte UNMODIFIABLE_MAP = 13;
+  private static final byte UNMODIFIABLE_LIST = 14;
+
+  /**
+   * Register a codec as the default codec of each Groovy collection class, a class that has already a default codec
+   * is skipped.
+   *
+   * @param eventBus the event bus
+   * @return the classes the codec has been registered for
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static List<Class<?>> register(EventBus eventBus) {
+    List<Class<?>> classes = new ArrayList<>(MODIFIABLE_CLASSES);
+    classes.addAll(IMMUTABLE_CLASSES);
+    classes.addAll(UNMODIFIABLE_VIEW_CLASSES);
+    List<Class<?>> registered = new ArrayList<>();
+    for (Class<?> clazz : classes) {
+      try {
+        // The codec names must be unique, each class gets its own codec
+        eventBus.registerDefaultCodec((Class) clazz, (MessageCodec) new GroovyCollectionCodec(NAME_PREFIX + clazz.getName()));
+        registered.add(clazz);
+      } catch (IllegalStateException ignore) {
+        // Another codec is registered for this class
+      }
+    }
+    return registered;
+  }
+
+  /**
+   * Unregister the codecs.
+   *
+   * @param eventBus the event bus
+   * @param classes the classes returned by {@link #register(EventBus)}
+   */
+  public static void unregister(EventBus eventBus, List<Class<?>> classes) {
+    for (Class<?> clazz : classes) {
+      eventBus.unregisterDefaultCodec(clazz);
+    }
+  }
+
+  private final String name;
+
+  public GroovyCollectionCodec(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public Object transform(Object o) {
+    if (isImmutable(o)) {
+      return o;
+    }
+    return copy(o);
+  }
+
+  private static boolean isImmutable(Object value) {
+    if (value == null || value instanceof String || value instanceof Boolean || value instanceof Integer
+      || value instanceof Long || value instanceof Double || value instanceof Float || value instanceof Short
+      || value instanceof Byte || value instanceof BigInteger || value instanceof BigDecimal) {
+      return true;
+    } else if (IMMUTABLE_CLASSES.contains(value.getClass())) {
+      if (value instanceof Map) {
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          if (!isImmutable(entry.getValue())) {
+            return false;
+          }
+        }
+      } else {
+        for (Object element : (List<?>) value) {
+          if (!isImmutable(element)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private static Object copy(Object value) {
+    if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      Map<Object, Object> copy = new LinkedHashMap<>(Math.max(16, (int) (map.size() / 0.75f) + 1));
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        copy.put(copyKey(entry.getKey()), copy(entry.getValue()));
+      }
+      return isUnmodifiable(value) ? Collections.unmodifiableMap(copy) : copy;
+    } else if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      List<Object> copy = new ArrayList<>(list.size());
+      for (Object element : list) {
+        copy.add(copy(element));
+      }
+      return isUnmodifiable(value) ? Collections.unmodifiableList(copy) : copy;
+    } else if (value instanceof CharSequence) {
+      return value.toString();
+    } else if (value instanceof JsonObject) {
+      return ((JsonObject) value).copy();
+    } else if (value instanceof JsonArray) {
+      return ((JsonArray) value).copy();
+    } else if (value instanceof Buffer) {
+      return ((Buffer) value).copy();
+    } else if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    } else if (isImmutable(value) || value instanceof Enum) {
+      return value;
+    }
+    throw new IllegalStateException("Illegal type in a Groovy collection message: " + value.getClass().getName());
+  }
+
+  /**
+   * @return whether the collection is immutable or a read-only view, its copy is unmodifiable too
+   */
+  private static boolean isUnmodifiable(Object value) {
+    return IMMUTABLE_CLASSES.contains(value.getClass()) || UNMODIFIABLE_VIEW_CLASSES.contains(value.getClass());
+  }
+
+  private static Object copyKey(Object key) {
+    return key instanceof CharSequence ? key.toString() : key;
+  }
+
+  @Override
+  public void encodeToWire(Buffer buffer, Object o) {
+    encode(buffer, o);
+  }
+
+  private static void encode(Buffer buffer, Object value) {
+    if (value == null) {
+      buffer.appendByte(NULL);
+    } else if (value instanceof Boolean) {
+      buffer.appendByte((Boolean) value ? TRUE : FALSE);
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      buffer.appendByte(INT).appendInt(((Number) value).intValue());
+    } else if (value instanceof Long) {
+      buffer.appendByte(LONG).appendLong((Long) value);
+    } else if (value instanceof Float) {
+      buffer.appendByte(FLOAT).appendFloat((Float) value);
+    } else if (value instanceof Double) {
+      buffer.appendByte(DOUBLE).appendDouble((Double) value);
+    } else if (value instanceof BigInteger) {
+      buffer.appendByte(BIG_INTEGER);
+      appendString(buffer, value.toString());
+    } else if (value instanceof BigDecimal) {
+      buffer.appendByte(BIG_DECIMAL);
+      appendString(buffer, value.toString());
+    } else if (value instanceof CharSequence || value instanceof Enum) {
+      buffer.appendByte(STRING);
+      appendString(buffer, value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      buffer.appendByte(BYTES).appendInt(bytes.length).appendBytes(bytes);
+    } else if (value instanceof Buffer) {
+      Buffer bytes = (Buffer) value;
+      buffer.appendByte(BYTES).appendInt(bytes.length()).appendBuffer(bytes);
+    } else if (value instanceof Map || value instanceof JsonObject) {
+      Map<?, ?> map = value instanceof JsonObject ? ((JsonObject) value).getMap() : (Map<?, ?>) value;
+      buffer.appendByte(isUnmodifiable(value) ? UNMODIFIABLE_MAP : MAP).appendInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        appendString(buffer, String.valueOf(entry.getKey()));
+        encode(buffer, entry.getValue());
+      }
+    } else if (value instanceof List || value instanceof JsonArray) {
+      List<?> list = value instanceof JsonArray ? ((JsonArray) value).getList() : (List<?>) value;
+      buffer.appendByte(isUnmodifiable(value) ? UNMODIFIABLE_LIST : LIST).appendInt(list.size());
+      for (Object element : list) {
+        encode(buffer, element);
+      }
+    } else {
+      throw new IllegalStateException("Illegal type in a Groovy collection message: " + value.getClass().getName());
+    }
+  }
+
+  private static void appendString(Buffer buffer, String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    buffer.appendInt(bytes.length).appendBytes(bytes);
+  }
+
+  @Override
+  public Object decodeFromWire(int pos, Buffer buffer) {
+    return new Decoder(buffer, pos).decode();
+  }
+
+  private static class Decoder {
+
+    private final Buffer buffer;
+    private int pos;
+
+    private Decoder(Buffer buffer, int pos) {
+      this.buffer = buffer;
+      this.pos = pos;
+    }
+
+    private Object decode() {
+      byte tag = buffer.getByte(pos++);
+      switch (tag) {
+        case NULL:
+          return null;
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case INT: {
+          int value = buffer.getInt(pos);
+          pos += 4;
+          return value;
+        }
+        case LONG: {
+          long value = buffer.getLong(pos);
+          pos += 8;
+          return value;
+        }
+        case FLOAT: {
+          float value = buffer.getFloat(pos);
+          pos += 4;
+          return value;
+        }
+        case DOUBLE: {
+          double value = buffer.getDouble(pos);
+          pos += 8;
+          return value;
+        }
+        case STRING:
+          return string();
+        case BIG_INTEGER:
+          return new BigInteger(string());
+        case BIG_DECIMAL:
+          return new BigDecimal(string());
+        case BYTES: {
+          int length = buffer.getInt(pos);
+          pos += 4;
+          byte[] bytes = buffer.getBytes(pos, pos + length);
+          pos += length;
+          return bytes;
+        }
+        case MAP:
+        case UNMODIFIABLE_MAP: {
+          int size = buffer.getInt(pos);
+          pos += 4;
+          Map<String, Object> map = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+          for (int i = 0;i < size;i++) {
+            String key = string();
+            map.put(key, decode());
+          }
+          return tag == MAP ? map : Collections.unmodifiableMap(map);
+        }
+        case LIST:
+        case UNMODIFIABLE_LIST: {
+          int size = buffer.getInt(pos);
+          pos += 4;
+          List<Object> list = new ArrayList<>(size);
+          for (int i = 0;i < size;i++) {
+            list.add(decode());
+          }
+          return tag == LIST ? list : Collections.unmodifiableList(list);
+        }
+        default:
+          throw new IllegalStateException("Invalid Groovy collection message tag " + tag);
+      }
+    }
+
+    private String string() {
+      int length = buffer.getInt(pos);
+      pos += 4;
+      String s = buffer.getString(pos, pos + length, "UTF-8");
+      pos += length;
+      return s;
+    }
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+}
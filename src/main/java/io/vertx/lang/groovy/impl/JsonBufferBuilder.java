@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import groovy.lang.Closure;
+import groovy.lang.GroovyObjectSupport;
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import static java.time.format.DateTimeFormatter.ISO_INSTANT;
+
+/**
+ * Encodes the {@link io.vertx.lang.groovy.Json#buffer} closures with a Jackson generator appending to a
+ * {@link Buffer}. Each method invoked on the delegate of a closure writes a field named after the method, the
+ * delegate declares no public method so any name can be used for a field.
+ */
+public final class JsonBufferBuilder {
+
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  // Same encoding as JsonObject and JsonArray
+  private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  /**
+   * The {@code toJson()} method of data object classes, resolved once per class, {@code null} when the class is not
+   * a data object or does not declare this method.
+   */
+  private static final ClassValue<MethodHandle> TO_JSON = new ClassValue<MethodHandle>() {
+    @Override
+    protected MethodHandle computeValue(Class<?> type) {
+      if (type.getAnnotation(DataObject.class) == null) {
+        return null;
+      }
+      try {
+        return MethodHandles.publicLookup()
+          .findVirtual(type, "toJson", MethodType.methodType(JsonObject.class))
+          .asType(MethodType.methodType(JsonObject.class, Object.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        return null;
+      }
+    }
+  };
+
+  private static class BufferOutputStream extends OutputStream {
+
+    private final Buffer buffer;
+
+    private BufferOutputStream(Buffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+      buffer.appendByte((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      buffer.appendBytes(b, off, len);
+    }
+  }
+
+  /**
+   * Encode a JSON object built by the {@code closure}.
+   */
+  public static Buffer object(Closure<?> closure) {
+    return encode(builder -> builder.writeObject(closure, null, false));
+  }
+
+  /**
+   * Encode a JSON array of the objects built by calling the {@code closure} with each of the {@code values}.
+   */
+  public static Buffer array(Iterable<?> values, Closure<?> closure) {
+    return encode(builder -> builder.writeArray(values, closure));
+  }
+
+  /**
+   * Encode a value, maps and lists are written as they are traversed without an intermediate JSON object or array.
+   */
+  public static Buffer value(Object value) {
+    return encode(builder -> builder.writeValue(value));
+  }
+
+  private interface Writer {
+    void write(Delegate builder) throws IOException;
+  }
+
+  private static Buffer encode(Writer writer) {
+    Buffer buffer = Buffer.buffer();
+    try (JsonGenerator generator = FACTORY.createGenerator(new BufferOutputStream(buffer), JsonEncoding.UTF8)) {
+      writer.write(new Delegate(generator));
+    } catch (IOException e) {
+      throw new EncodeException(e.getMessage(), e);
+    }
+    return buffer;
+  }
+
+  private JsonBufferBuilder() {
+  }
+
+  private static final class Delegate extends GroovyObjectSupport {
+
+    private final JsonGenerator generator;
+
+    private Delegate(JsonGenerator generator) {
+      this.generator = generator;
+    }
+
+    @Override
+    public Object invokeMethod(String name, Object args) {
+      Object[] arguments = args instanceof Object[] ? (Object[]) args : new Object[]{args};
+      try {
+        generator.writeFieldName(name);
+        switch (arguments.length) {
+          case 0:
+            generator.writeStartObject();
+            generator.writeEndObject();
+            break;
+          case 1:
+            writeValue(arguments[0]);
+            break;
+          default:
+            Object last = arguments[arguments.length - 1];
+            if (arguments.length == 2 && last instanceof Closure && arguments[0] instanceof Iterable) {
+              writeArray((Iterable<?>) arguments[0], (Closure<?>) last);
+            } else {
+              generator.writeStartArray();
+              for (Object argument : arguments) {
+                writeValue(argument);
+              }
+              generator.writeEndArray();
+            }
+            break;
+        }
+      } catch (IOException e) {
+        throw new EncodeException(e.getMessage(), e);
+      }
+      return null;
+    }
+
+    private void writeObject(Closure<?> closure, Object argument, boolean withArgument) throws IOException {
+      Closure<?> copy = (Closure<?>) closure.clone();
+      copy.setDelegate(this);
+      copy.setResolveStrategy(Closure.DELEGATE_FIRST);
+      generator.writeStartObject();
+      if (withArgument) {
+        copy.call(argument);
+      } else {
+        copy.call();
+      }
+      generator.writeEndObject();
+    }
+
+    private void writeArray(Iterable<?> values, Closure<?> closure) throws IOException {
+      generator.writeStartArray();
+      for (Object value : values) {
+        writeObject(closure, value, true);
+      }
+      generator.writeEndArray();
+    }
+
+    private void writeValue(Object value) throws IOException {
+      if (value == null) {
+        generator.writeNull();
+      } else if (value instanceof CharSequence) {
+        generator.writeString(value.toString());
+      } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+        generator.writeNumber(((Number) value).longValue());
+      } else if (value instanceof Double) {
+        generator.writeNumber((Double) value);
+      } else if (value instanceof Float) {
+        // Not widened to a double, like Json.encode
+        generator.writeNumber((Float) value);
+      } else if (value instanceof BigDecimal) {
+        generator.writeNumber((BigDecimal) value);
+      } else if (value instanceof BigInteger) {
+        generator.writeNumber((BigInteger) value);
+      } else if (value instanceof Number) {
+        generator.writeNumber(((Number) value).doubleValue());
+      } else if (value instanceof Boolean) {
+        generator.writeBoolean((Boolean) value);
+      } else if (value instanceof Closure) {
+        writeObject((Closure<?>) value, null, false);
+      } else if (value instanceof Map) {
+        generator.writeStartObject();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          generator.writeFieldName(String.valueOf(entry.getKey()));
+          writeValue(entry.getValue());
+        }
+        generator.writeEndObject();
+      } else if (value instanceof JsonObject) {
+        writeValue(((JsonObject) value).getMap());
+      } else if (value instanceof JsonArray) {
+        // Before Iterable, its iterator wraps the nested maps and lists
+        writeValue(((JsonArray) value).getList());
+      } else if (value instanceof Iterable) {
+        generator.writeStartArray();
+        for (Object element : (Iterable<?>) value) {
+          writeValue(element);
+        }
+        generator.writeEndArray();
+      } else if (value instanceof Object[]) {
+        generator.writeStartArray();
+        for (Object element : (Object[]) value) {
+          writeValue(element);
+        }
+        generator.writeEndArray();
+      } else if (value instanceof byte[]) {
+        generator.writeString(BASE64_ENCODER.encodeToString((byte[]) value));
+      } else if (value instanceof Buffer) {
+        generator.writeString(BASE64_ENCODER.encodeToString(((Buffer) value).getBytes()));
+      } else if (value instanceof Instant) {
+        generator.writeString(ISO_INSTANT.format((Instant) value));
+      } else if (value instanceof Enum) {
+        generator.writeString(((Enum<?>) value).name());
+      } else {
+        MethodHandle toJson = TO_JSON.get(value.getClass());
+        if (toJson == null) {
+          throw new EncodeException("Cannot encode " + value.getClass().getName() + " to JSON");
+        }
+        try {
+          writeValue((JsonObject) toJson.invokeExact(value));
+        } catch (IOException | RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable t) {
+          throw new EncodeException(t.getMessage(), t);
+        }
+      }
+    }
+  }
+}
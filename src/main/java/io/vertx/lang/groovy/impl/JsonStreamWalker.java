@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.parsetools.JsonEvent;
+import io.vertx.core.parsetools.JsonEventType;
+import io.vertx.core.parsetools.JsonParser;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BiConsumer;
+
+/**
+ * Walks the events of a {@link JsonParser} to find the JSON array or object designated by a JSON pointer, the
+ * members of this container are then materialized one at a time and handed to a consumer.
+ * <p>
+ * The parser stays in event mode until the container is found, it is then switched to value mode so each member is
+ * parsed to a single value, and switched back to event mode when the container ends. The rest of the document is
+ * skipped, so the memory used is proportional to the largest member rather than to the whole document.
+ */
+public class JsonStreamWalker implements Handler<JsonEvent> {
+
+  private static class Frame {
+
+    private final boolean array;
+    private final boolean matches;
+    private int index;
+
+    private Frame(boolean array, boolean matches) {
+      this.array = array;
+      this.matches = matches;
+    }
+  }
+
+  private final JsonParser parser;
+  private final String pointer;
+  private final String[] target;
+  private final boolean array;
+  private final BiConsumer<String, Object> consumer;
+  private final Deque<Frame> frames = new ArrayDeque<>();
+  private boolean inTarget;
+  private boolean done;
+
+  /**
+   * @param parser the parser producing the events
+   * @param pointer the JSON pointer of the container, the empty string designates the document root
+   * @param array whether the container is expected to be an array or an object
+   * @param consumer the consumer of the members, called with the field name ({@code null} for array elements)
+   *                 and the member value
+   */
+  public JsonStreamWalker(JsonParser parser, String pointer, boolean array, BiConsumer<String, Object> consumer) {
+    this.parser = parser;
+    this.pointer = pointer;
+    this.target = parsePointer(pointer);
+    this.array = array;
+    this.consumer = consumer;
+  }
+
+  /**
+   * @return whether the container designated by the pointer has been fully walked
+   */
+  public boolean isDone() {
+    return done;
+  }
+
+  @Override
+  public void handle(JsonEvent event) {
+    if (done) {
+      return;
+    }
+    JsonEventType type = event.type();
+    if (inTarget) {
+      if (type == JsonEventType.VALUE) {
+        consumer.accept(event.fieldName(), event.value());
+      } else {
+        // The container ends, the members were all parsed in value mode
+        parser.objectEventMode();
+        parser.arrayEventMode();
+        inTarget = false;
+        done = true;
+      }
+      return;
+    }
+    switch (type) {
+      case START_OBJECT:
+      case START_ARRAY: {
+        boolean isArray = type == JsonEventType.START_ARRAY;
+        Frame frame = new Frame(isArray, matches(event));
+        frames.push(frame);
+        if (frame.matches && frames.size() - 1 == target.length) {
+          if (isArray != array) {
+            throw new IllegalStateException("Expected a JSON " + (array ? "array" : "object") + " at '" + pointer + "'");
+          }
+          parser.objectValueMode();
+          parser.arrayValueMode();
+          inTarget = true;
+        }
+        break;
+      }
+      case END_OBJECT:
+      case END_ARRAY:
+        frames.pop();
+        if (frames.isEmpty()) {
+          throw new IllegalStateException("No JSON " + (array ? "array" : "object") + " at '" + pointer + "'");
+        }
+        break;
+      case VALUE:
+        if (matches(event) && frames.size() == target.length) {
+          throw new IllegalStateException("Expected a JSON " + (array ? "array" : "object") + " at '" + pointer + "'");
+        }
+        break;
+    }
+  }
+
+  /**
+   * Signals the end of the document, it fails when the container designated by the pointer was not found.
+   */
+  public void end() {
+    if (!done) {
+      throw new IllegalStateException("No JSON " + (array ? "array" : "object") + " at '" + pointer + "'");
+    }
+  }
+
+  /**
+   * Check whether the value of the event is on the path to the container, the index of the enclosing array is
+   * incremented as a side effect.
+   */
+  private boolean matches(JsonEvent event) {
+    Frame parent = frames.peek();
+    if (parent == null) {
+      return true;
+    }
+    String segment = parent.array ? Integer.toString(parent.index++) : event.fieldName();
+    int depth = frames.size();
+    return parent.matches && depth <= target.length && target[depth - 1].equals(segment);
+  }
+
+  private static String[] parsePointer(String pointer) {
+    if (pointer.isEmpty()) {
+      return new String[0];
+    }
+    if (pointer.charAt(0) != '/') {
+      throw new IllegalArgumentException("Invalid JSON pointer '" + pointer + "'");
+    }
+    String[] segments = pointer.substring(1).split("/", -1);
+    for (int i = 0;i < segments.length;i++) {
+      segments[i] = segments[i].replace("~1", "/").replace("~0", "~");
+    }
+    return segments;
+  }
+}
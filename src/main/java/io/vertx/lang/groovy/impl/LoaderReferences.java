@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+package io.vertx.lang.groovy.impl;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.function.Supplier;
+
+/**
+ * References to class loaders and to the values cached for them.
+ * <p>
+ * A value cached for a class loader usually references it, e.g. a class compiled by a Groovy class loader whose
+ * parent is the class loader, so a cache holding such values strongly never releases the class loader even when
+ * its keys are weak. The values cached for a permanent class loader, i.e. the system class loader, the class loader
+ * of this library or one of their ancestors, are held strongly. The values cached for other class loaders are held
+ * softly, they are released under memory pressure once nothing else uses them, which clears the weak keys.
+ */
+public final class LoaderReferences {
+
+  private static final ClassLoader LIBRARY_LOADER = LoaderReferences.class.getClassLoader();
+
+  private LoaderReferences() {
+  }
+
+  /**
+   * @return whether {@code loader} lives as long as this library
+   */
+  public static boolean isPermanent(ClassLoader loader) {
+    return loader == null || isAncestor(loader, ClassLoader.getSystemClassLoader()) || isAncestor(loader, LIBRARY_LOADER);
+  }
+
+  private static boolean isAncestor(ClassLoader loader, ClassLoader descendant) {
+    for (ClassLoader current = descendant;current != null;current = current.getParent()) {
+      if (current == loader) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reference a value cached for a class loader.
+   *
+   * @param loader the class loader
+   * @param value the value
+   * @return a strong reference when the loader is permanent, a soft reference otherwise
+   */
+  public static <T> Supplier<T> value(ClassLoader loader, T value) {
+    if (isPermanent(loader)) {
+      return () -> value;
+    }
+    SoftReference<T> ref = new SoftReference<>(value);
+    return ref::get;
+  }
+
+  /**
+   * A weak reference to a class loader compared by identity, a cleared reference is only equal to itself.
+   */
+  public static final class Key extends WeakReference<ClassLoader> {
+
+    private final int hash;
+
+    public Key(ClassLoader loader) {
+      super(loader);
+      hash = System.identityHashCode(loader);
+    }
+
+    public Key(ClassLoader loader, ReferenceQueue<? super ClassLoader> queue) {
+      super(loader, queue);
+      hash = System.identityHashCode(loader);
+    }
+
+    public boolean isCleared() {
+      return get() == null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof Key) {
+        ClassLoader loader = get();
+        return loader != null && loader == ((Key) obj).get();
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
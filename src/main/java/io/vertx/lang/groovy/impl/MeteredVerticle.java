@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import io.vertx.core.Context;
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.lang.groovy.GroovyScriptMetrics;
+
+/**
+ * A verticle reporting the start duration of the verticle it wraps.
+ */
+public class MeteredVerticle implements Verticle {
+
+  private final String name;
+  private final GroovyScriptMetrics metrics;
+  private final Verticle delegate;
+
+  public MeteredVerticle(String name, GroovyScriptMetrics metrics, Verticle delegate) {
+    this.name = name;
+    this.metrics = metrics;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Vertx getVertx() {
+    return delegate.getVertx();
+  }
+
+  @Override
+  public void init(Vertx vertx, Context context) {
+    delegate.init(vertx, context);
+  }
+
+  @Override
+  public void start(Promise<Void> startPromise) throws Exception {
+    long start = System.nanoTime();
+    Promise<Void> promise = Promise.promise();
+    promise.future().onComplete(ar -> {
+      metrics.verticleStarted(name, System.nanoTime() - start, ar.cause());
+      startPromise.handle(ar);
+    });
+    try {
+      delegate.start(promise);
+    } catch (Exception | Error e) {
+      // Vert.x fails the deployment with the thrown exception, the start promise is left pending
+      metrics.verticleStarted(name, System.nanoTime() - start, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public void stop(Promise<Void> stopPromise) throws Exception {
+    delegate.stop(stopPromise);
+  }
+}
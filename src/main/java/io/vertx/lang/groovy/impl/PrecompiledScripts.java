@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Descriptors of the verticle scripts compiled at build time by {@link io.vertx.lang.groovy.GroovyScriptCompiler}.
+ * <p>
+ * The descriptor of the {@code foo/bar.groovy} script is the {@code META-INF/vertx/groovy/foo/bar.groovy.properties}
+ * resource, it names the compiled class and the digest of the source it was compiled from.
+ */
+public final class PrecompiledScripts {
+
+  private static final Logger log = LoggerFactory.getLogger(PrecompiledScripts.class);
+
+  public static final String DESCRIPTOR_PREFIX = "META-INF/vertx/groovy/";
+  private static final String DESCRIPTOR_SUFFIX = ".properties";
+  private static final String CLASS = "class";
+  private static final String DIGEST = "sha256";
+
+  private PrecompiledScripts() {
+  }
+
+  /**
+   * Load the precompiled class of a script.
+   *
+   * @param name the script name
+   * @param digest the digest of the script source or {@code null} when the source is not available
+   * @param cl the deployment class loader
+   * @return the precompiled class or {@code null} when there is none or the source has changed since
+   */
+  public static Class<?> load(String name, String digest, ClassLoader cl) throws IOException {
+    URL descriptor = cl.getResource(DESCRIPTOR_PREFIX + name + DESCRIPTOR_SUFFIX);
+    if (descriptor == null) {
+      return null;
+    }
+    Properties props = new Properties();
+    try (InputStream in = descriptor.openStream()) {
+      props.load(in);
+    }
+    if (digest != null && !digest.equals(props.getProperty(DIGEST))) {
+      log.debug("Ignoring precompiled " + name + ", the source has changed");
+      return null;
+    }
+    try {
+      return cl.loadClass(props.getProperty(CLASS));
+    } catch (ClassNotFoundException e) {
+      log.warn("Ignoring precompiled " + name + ", class " + props.getProperty(CLASS) + " not found");
+      return null;
+    }
+  }
+
+  /**
+   * Write the descriptor of a precompiled script.
+   *
+   * @param outputDir the output directory
+   * @param name the script name
+   * @param className the compiled class name
+   * @param digest the digest of the script source
+   */
+  public static void write(Path outputDir, String name, String className, String digest) throws IOException {
+    Path file = outputDir.resolve(DESCRIPTOR_PREFIX + name + DESCRIPTOR_SUFFIX);
+    Files.createDirectories(file.getParent());
+    Properties props = new Properties();
+    props.setProperty(CLASS, className);
+    props.setProperty(DIGEST, digest);
+    try (OutputStream out = Files.newOutputStream(file)) {
+      props.store(out, name);
+    }
+  }
+}
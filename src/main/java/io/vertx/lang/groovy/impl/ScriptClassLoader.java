@@ -0,0 +1,196 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link GroovyClassLoader} that records what a compilation produces: the bytecode of every generated class
+ * and the sources the script depends on, whether they are compiled along with the script or their classes are
+ * reused from a previous compilation by this loader.
+ * <p>
+ * When the loader retains the bytecode it generates, the bytecode of the reused classes, and of the classes they
+ * depend on, is recorded as well, so the recorded bytecode is complete. Otherwise the compilation of a script reusing
+ * classes records no bytecode.
+ */
+public class ScriptClassLoader extends GroovyClassLoader {
+
+  private final ThreadLocal<Recording> recording = new ThreadLocal<>();
+  private final Map<String, URI> classSources = new ConcurrentHashMap<>();
+  private final Map<URI, Long> sourceTimestamps = new ConcurrentHashMap<>();
+  private final Map<URI, Set<URI>> sourceDependencies = new ConcurrentHashMap<>();
+  private final Map<URI, Map<String, byte[]>> sourceBytecode;
+
+  public ScriptClassLoader(ClassLoader parent, CompilerConfiguration config) {
+    this(parent, config, false);
+  }
+
+  /**
+   * @param parent the deployment class loader
+   * @param config the compiler configuration
+   * @param retainBytecode whether to retain the bytecode of the compiled classes
+   */
+  public ScriptClassLoader(ClassLoader parent, CompilerConfiguration config, boolean retainBytecode) {
+    super(parent, config);
+    this.sourceBytecode = retainBytecode ? new ConcurrentHashMap<>() : null;
+  }
+
+  /**
+   * Compile a script.
+   *
+   * @param url the script url
+   * @return the compiled script
+   */
+  public CompiledScript compile(URL url) throws Exception {
+    Recording current = new Recording();
+    recording.set(current);
+    try {
+      // Not cached by source text, a script must be compiled again when its dependencies have changed
+      Class<?> clazz = parseClass(new GroovyCodeSource(url), false);
+      for (URI compiled : current.compiled) {
+        // Sources compiled together are assumed to depend on all the sources of the compilation
+        sourceDependencies.put(compiled, new LinkedHashSet<>(current.sources));
+      }
+      return new CompiledScript(clazz, current.sources, current.complete ? current.bytecode : null);
+    } finally {
+      recording.remove();
+    }
+  }
+
+  /**
+   * Forget the classes compiled from a source, so they are compiled again when a script depending on them is
+   * compiled with this loader.
+   *
+   * @param source the source URI
+   * @return whether classes compiled from this source were known to this loader
+   */
+  public boolean invalidate(URI source) {
+    boolean found = false;
+    for (Map.Entry<String, URI> entry : classSources.entrySet()) {
+      if (entry.getValue().equals(source)) {
+        sourceTimestamps.remove(source);
+        sourceDependencies.remove(source);
+        if (sourceBytecode != null) {
+          sourceBytecode.remove(source);
+        }
+        classSources.remove(entry.getKey());
+        removeClassCacheEntry(entry.getKey());
+        found = true;
+      }
+    }
+    return found;
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public Class loadClass(String name, boolean lookupScriptFiles, boolean preferClassOverScript, boolean resolve) throws ClassNotFoundException, CompilationFailedException {
+    URI compiledFrom = classSources.get(name);
+    if (compiledFrom != null && isModified(compiledFrom)) {
+      // Compile the changed source again rather than linking the script against a stale class
+      invalidate(compiledFrom);
+    }
+    Class clazz = super.loadClass(name, lookupScriptFiles, preferClassOverScript, resolve);
+    Recording current = recording.get();
+    if (current != null) {
+      URI source = classSources.get(name);
+      if (source != null && !current.compiled.contains(source)) {
+        // A class compiled by a previous compilation the script depends on
+        reuse(current, source);
+      }
+    }
+    return clazz;
+  }
+
+  @Override
+  protected ClassCollector createCollector(CompilationUnit unit, SourceUnit su) {
+    Recording current = recording.get();
+    if (current == null) {
+      return super.createCollector(unit, su);
+    }
+    return new ClassCollector(new InnerLoader(this), unit, su) {
+      @SuppressWarnings("rawtypes")
+      @Override
+      protected Class createClass(byte[] code, ClassNode classNode) {
+        current.bytecode.put(classNode.getName(), code);
+        SourceUnit source = classNode.getModule() != null ? classNode.getModule().getContext() : null;
+        if (source != null && source.getSource() != null) {
+          URI uri = source.getSource().getURI();
+          if (uri != null) {
+            current.sources.add(uri);
+            current.compiled.add(uri);
+            if (sourceBytecode != null) {
+              sourceBytecode.computeIfAbsent(uri, k -> new ConcurrentHashMap<>()).put(classNode.getName(), code);
+            }
+            classSources.put(classNode.getName(), uri);
+            sourceTimestamps.computeIfAbsent(uri, ScriptClassLoader::lastModified);
+          }
+        }
+        return super.createClass(code, classNode);
+      }
+    };
+  }
+
+  private void reuse(Recording current, URI source) {
+    if (!current.sources.add(source)) {
+      return;
+    }
+    Map<String, byte[]> bytecode = sourceBytecode != null ? sourceBytecode.get(source) : null;
+    if (bytecode != null) {
+      bytecode.forEach(current.bytecode::putIfAbsent);
+    } else {
+      current.complete = false;
+    }
+    // The reused classes may be linked lazily to the classes of their own dependencies
+    for (URI dependency : sourceDependencies.getOrDefault(source, Collections.emptySet())) {
+      reuse(current, dependency);
+    }
+  }
+
+  private boolean isModified(URI source) {
+    Long timestamp = sourceTimestamps.get(source);
+    return timestamp != null && timestamp != lastModified(source);
+  }
+
+  /**
+   * @return the last modification time of a file source, {@code 0} for other sources which are considered immutable
+   */
+  private static long lastModified(URI source) {
+    return "file".equals(source.getScheme()) ? new File(source).lastModified() : 0L;
+  }
+
+  private static class Recording {
+    private final Map<String, byte[]> bytecode = new LinkedHashMap<>();
+    private final Set<URI> sources = new LinkedHashSet<>();
+    private final Set<URI> compiled = new LinkedHashSet<>();
+    private boolean complete = true;
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import io.vertx.core.Context;
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import org.codehaus.groovy.control.CompilerConfiguration;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The {@link ScriptClassLoader} shared by the scripts of a deployment class loader compiled with the same compiler
+ * configuration.
+ * <p>
+ * Scripts compiled by a shared loader reuse the classes of the scripts they depend on instead of compiling them again.
+ * The number of shared loaders is bounded, the least recently used loader is evicted when the bound is reached, so
+ * redeployments with new class loaders do not accumulate Groovy class loaders. The deployments using the classes of a
+ * loader {@link #acquire(ScriptClassLoader) acquire} it, an evicted loader is closed once it is no longer used.
+ * <p>
+ * The deployment class loaders are referenced weakly, the shared loaders of a class loader that is not permanent are
+ * held softly, see {@link LoaderReferences}.
+ */
+public class ScriptClassLoaders {
+
+  private static final Logger log = LoggerFactory.getLogger(ScriptClassLoaders.class);
+
+  private final int maxSize;
+  private final boolean retainBytecode;
+  private final Consumer<ScriptClassLoader> evictionHandler;
+  private final LinkedHashMap<Key, Supplier<ScriptClassLoader>> loaders;
+  private final ReferenceQueue<ClassLoader> cleared = new ReferenceQueue<>();
+  private final Map<ScriptClassLoader, Integer> references = new IdentityHashMap<>();
+  private final Map<ScriptClassLoader, Boolean> retired = new IdentityHashMap<>();
+  private final List<ScriptClassLoader> evicted = new ArrayList<>();
+
+  /**
+   * @param maxSize the maximum number of shared loaders
+   * @param evictionHandler called with a loader after its eviction
+   */
+  public ScriptClassLoaders(int maxSize, Consumer<ScriptClassLoader> evictionHandler) {
+    this(maxSize, false, evictionHandler);
+  }
+
+  /**
+   * @param maxSize the maximum number of shared loaders
+   * @param retainBytecode whether the shared loaders retain the bytecode they generate
+   * @param evictionHandler called with a loader after its eviction
+   */
+  public ScriptClassLoaders(int maxSize, boolean retainBytecode, Consumer<ScriptClassLoader> evictionHandler) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Invalid class loader cache size " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.retainBytecode = retainBytecode;
+    this.evictionHandler = evictionHandler;
+    this.loaders = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Supplier<ScriptClassLoader>> eldest) {
+        if (size() > ScriptClassLoaders.this.maxSize) {
+          ScriptClassLoader loader = eldest.getValue().get();
+          if (loader != null) {
+            evicted.add(loader);
+          }
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Get the loader shared by the scripts of a class loader compiled with a configuration, creating it when needed.
+   *
+   * @param parent the deployment class loader
+   * @param fingerprint the compiler configuration fingerprint
+   * @param config the compiler configuration
+   * @return the shared loader
+   */
+  public ScriptClassLoader get(ClassLoader parent, String fingerprint, CompilerConfiguration config) {
+    ScriptClassLoader loader;
+    List<ScriptClassLoader> toClose;
+    synchronized (this) {
+      purge();
+      Supplier<ScriptClassLoader> ref = loaders.get(new Key(new LoaderReferences.Key(parent), fingerprint));
+      loader = ref != null ? ref.get() : null;
+      if (loader == null) {
+        loader = new ScriptClassLoader(parent, config, retainBytecode);
+        loaders.put(new Key(new LoaderReferences.Key(parent, cleared), fingerprint), LoaderReferences.value(parent, loader));
+      }
+      if (evicted.isEmpty()) {
+        return loader;
+      }
+      toClose = retire(evicted);
+      evicted.clear();
+    }
+    toClose.forEach(this::close);
+    return loader;
+  }
+
+  /**
+   * Record that a deployment uses the classes of a loader, an evicted loader is not closed until all the deployments
+   * using it {@link #release(ScriptClassLoader) release} it.
+   *
+   * @param loader the shared loader
+   */
+  public synchronized void acquire(ScriptClassLoader loader) {
+    references.merge(loader, 1, Integer::sum);
+  }
+
+  /**
+   * Wrap a verticle so its deployment uses a loader from its initialization until it is undeployed.
+   *
+   * @param loader the shared loader
+   * @param verticle the verticle
+   * @return the wrapped verticle
+   */
+  public Verticle use(ScriptClassLoader loader, Verticle verticle) {
+    return new SharedLoaderVerticle(loader, verticle);
+  }
+
+  /**
+   * Record that a deployment no longer uses the classes of a loader, an evicted loader is closed by its last release.
+   *
+   * @param loader the shared loader
+   */
+  public void release(ScriptClassLoader loader) {
+    synchronized (this) {
+      Integer count = references.get(loader);
+      if (count == null) {
+        return;
+      }
+      if (count > 1) {
+        references.put(loader, count - 1);
+        return;
+      }
+      references.remove(loader);
+      if (retired.remove(loader) == null) {
+        return;
+      }
+    }
+    close(loader);
+  }
+
+  /**
+   * @return a snapshot of the shared loaders
+   */
+  public synchronized List<ScriptClassLoader> loaders() {
+    List<ScriptClassLoader> list = new ArrayList<>();
+    for (Supplier<ScriptClassLoader> ref : loaders.values()) {
+      ScriptClassLoader loader = ref.get();
+      if (loader != null) {
+        list.add(loader);
+      }
+    }
+    return list;
+  }
+
+  public synchronized int size() {
+    purge();
+    return loaders.size();
+  }
+
+  /**
+   * Evict all the shared loaders, the loaders are closed once they are no longer used.
+   */
+  public void clear() {
+    List<ScriptClassLoader> toClose;
+    synchronized (this) {
+      toClose = retire(loaders());
+      loaders.clear();
+    }
+    toClose.forEach(this::close);
+  }
+
+  private void purge() {
+    if (cleared.poll() != null) {
+      while (cleared.poll() != null) {
+        // Drain
+      }
+      loaders.keySet().removeIf(key -> key.parent.isCleared());
+    }
+  }
+
+  private List<ScriptClassLoader> retire(List<ScriptClassLoader> list) {
+    List<ScriptClassLoader> toClose = new ArrayList<>();
+    for (ScriptClassLoader loader : list) {
+      evictionHandler.accept(loader);
+      if (references.containsKey(loader)) {
+        retired.put(loader, Boolean.TRUE);
+      } else {
+        toClose.add(loader);
+      }
+    }
+    return toClose;
+  }
+
+  private void close(ScriptClassLoader loader) {
+    loader.clearCache();
+    try {
+      loader.close();
+    } catch (IOException e) {
+      log.debug("Could not close Groovy class loader", e);
+    }
+  }
+
+  private class SharedLoaderVerticle implements Verticle {
+
+    private final ScriptClassLoader loader;
+    private final Verticle delegate;
+
+    SharedLoaderVerticle(ScriptClassLoader loader, Verticle delegate) {
+      this.loader = loader;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Vertx getVertx() {
+      return delegate.getVertx();
+    }
+
+    @Override
+    public void init(Vertx vertx, Context context) {
+      acquire(loader);
+      ((ContextInternal) context).addCloseHook(completion -> {
+        release(loader);
+        completion.succeed();
+      });
+      delegate.init(vertx, context);
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) throws Exception {
+      delegate.start(startPromise);
+    }
+
+    @Override
+    public void stop(Promise<Void> stopPromise) throws Exception {
+      delegate.stop(stopPromise);
+    }
+  }
+
+  private static final class Key {
+
+    private final LoaderReferences.Key parent;
+    private final String fingerprint;
+
+    Key(LoaderReferences.Key parent, String fingerprint) {
+      this.parent = parent;
+      this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof Key) {
+        Key that = (Key) obj;
+        return parent.equals(that.parent) && fingerprint.equals(that.fingerprint);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(parent, fingerprint);
+    }
+  }
+}
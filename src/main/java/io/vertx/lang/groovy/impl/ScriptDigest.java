@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content digests of script sources, used to key the compiled script caches.
+ */
+public final class ScriptDigest {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private ScriptDigest() {
+  }
+
+  /**
+   * Read the content of a resource, bypassing the JAR caches so a changed file is always seen.
+   *
+   * @param url the resource url
+   * @return the resource bytes
+   */
+  public static byte[] read(URL url) throws IOException {
+    URLConnection conn = url.openConnection();
+    conn.setUseCaches(false);
+    try (InputStream in = conn.getInputStream()) {
+      return in.readAllBytes();
+    }
+  }
+
+  /**
+   * @return the hex encoded SHA-256 digest of {@code bytes}
+   */
+  public static String sha256(byte[] bytes) {
+    MessageDigest md;
+    try {
+      md = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Mandatory algorithm for every Java platform
+      throw new AssertionError(e);
+    }
+    byte[] hash = md.digest(bytes);
+    char[] chars = new char[hash.length * 2];
+    for (int i = 0;i < hash.length;i++) {
+      chars[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+      chars[2 * i + 1] = HEX[hash[i] & 0xF];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * @return the hex encoded SHA-256 digest of the resource content
+   */
+  public static String sha256(URL url) throws IOException {
+    return sha256(read(url));
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import groovy.lang.Script;
+import io.vertx.core.Promise;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * The constructor and the {@code vertxStart}, {@code vertxStop} and {@code vertxShared} methods of a script class,
+ * resolved once per class.
+ * <p>
+ * A lifecycle method is either a no-arg method, or a method with a single parameter accepting a {@link Promise}
+ * that the method completes. The no-arg method is preferred when the script declares both, like the Groovy method
+ * selection for a call without arguments.
+ * <p>
+ * The no-arg {@code vertxShared} method is called once per deployment, on the first started instance, and its result
+ * is handed to all the instances of the deployment, see {@link #newShared()}.
+ */
+public final class ScriptLifecycle {
+
+  private static final MethodType SYNC_TYPE = MethodType.methodType(Object.class, Script.class);
+  private static final MethodType ASYNC_TYPE = MethodType.methodType(Object.class, Script.class, Promise.class);
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Script.class);
+  private static final Object UNSET = new Object();
+
+  private static final ClassValue<ScriptLifecycle> LIFECYCLES = new ClassValue<ScriptLifecycle>() {
+    @Override
+    protected ScriptLifecycle computeValue(Class<?> type) {
+      Callback shared = callback(type, "vertxShared");
+      return new ScriptLifecycle(constructor(type), callback(type, "vertxStart"), callback(type, "vertxStop"),
+        shared != null && !shared.async ? shared.handle : null);
+    }
+  };
+
+  /**
+   * @param scriptClass the script class
+   * @return the lifecycle of the {@code scriptClass}
+   */
+  public static ScriptLifecycle of(Class<? extends Script> scriptClass) {
+    return LIFECYCLES.get(scriptClass);
+  }
+
+  private static class Callback {
+
+    private final MethodHandle handle;
+    private final boolean async;
+
+    private Callback(MethodHandle handle, boolean async) {
+      this.handle = handle;
+      this.async = async;
+    }
+
+    private void invoke(Script script, Promise<Void> promise) throws Throwable {
+      if (async) {
+        Object ignore = handle.invokeExact(script, promise);
+      } else {
+        Object ignore = handle.invokeExact(script);
+        promise.complete();
+      }
+    }
+  }
+
+  private static Callback callback(Class<?> type, String name) {
+    Method async = null;
+    // Like the Groovy method lookup, the methods of any visibility declared by the script or its super classes
+    for (Class<?> c = type;c != null && c != Script.class;c = c.getSuperclass()) {
+      for (Method method : c.getDeclaredMethods()) {
+        if (!method.getName().equals(name) || Modifier.isStatic(method.getModifiers()) || method.isSynthetic()) {
+          continue;
+        }
+        Class<?>[] params = method.getParameterTypes();
+        if (params.length == 0) {
+          return new Callback(unreflect(method, SYNC_TYPE), false);
+        } else if (params.length == 1 && params[0].isAssignableFrom(Promise.class) && async == null) {
+          async = method;
+        }
+      }
+    }
+    return async != null ? new Callback(unreflect(async, ASYNC_TYPE), true) : null;
+  }
+
+  private static MethodHandle constructor(Class<?> type) {
+    try {
+      return MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      // Instantiated reflectively, which reports the failure
+      return null;
+    }
+  }
+
+  private static MethodHandle unreflect(Method method, MethodType type) {
+    try {
+      if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+        method.setAccessible(true);
+      }
+      return MethodHandles.lookup().unreflect(method).asType(type);
+    } catch (IllegalAccessException | RuntimeException e) {
+      throw new IllegalStateException("Cannot access " + method, e);
+    }
+  }
+
+  private final MethodHandle constructor;
+  private final Callback start;
+  private final Callback stop;
+  private final MethodHandle shared;
+
+  private ScriptLifecycle(MethodHandle constructor, Callback start, Callback stop, MethodHandle shared) {
+    this.constructor = constructor;
+    this.start = start;
+    this.stop = stop;
+    this.shared = shared;
+  }
+
+  /**
+   * @param scriptClass the script class
+   * @return a new instance of the {@code scriptClass}
+   */
+  public Script newInstance(Class<? extends Script> scriptClass) throws Exception {
+    if (constructor == null) {
+      return scriptClass.getDeclaredConstructor().newInstance();
+    }
+    try {
+      return (Script) constructor.invokeExact();
+    } catch (Exception | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new Exception(t);
+    }
+  }
+
+  /**
+   * @return a new holder of the {@code vertxShared} value, for the instances of a deployment, or {@code null} when the
+   * script does not declare this method
+   */
+  public Shared newShared() {
+    return shared != null ? new Shared(shared) : null;
+  }
+
+  /**
+   * Call the {@code vertxStart} method of the {@code script}, the {@code promise} is completed when the script
+   * does not declare it.
+   */
+  public void start(Script script, Promise<Void> promise) throws Throwable {
+    invoke(start, script, promise);
+  }
+
+  /**
+   * Call the {@code vertxStop} method of the {@code script}, the {@code promise} is completed when the script
+   * does not declare it.
+   */
+  public void stop(Script script, Promise<Void> promise) throws Throwable {
+    invoke(stop, script, promise);
+  }
+
+  private static void invoke(Callback callback, Script script, Promise<Void> promise) throws Throwable {
+    if (callback != null) {
+      callback.invoke(script, promise);
+    } else {
+      promise.complete();
+    }
+  }
+
+  /**
+   * The value of the {@code vertxShared} method for the instances of a deployment.
+   */
+  public static final class Shared {
+
+    private final MethodHandle method;
+    private volatile Object value = UNSET;
+
+    private Shared(MethodHandle method) {
+      this.method = method;
+    }
+
+    /**
+     * Return the value of the {@code vertxShared} method, the method is called with the {@code script} the first
+     * time and the value is reused afterwards. A failure is not retained, the next call tries again.
+     */
+    public Object get(Script script) throws Exception {
+      Object current = value;
+      if (current == UNSET) {
+        synchronized (this) {
+          current = value;
+          if (current == UNSET) {
+            try {
+              current = method.invokeExact(script);
+            } catch (Exception | Error e) {
+              throw e;
+            } catch (Throwable t) {
+              throw new Exception(t);
+            }
+            value = current;
+          }
+        }
+      }
+      return current;
+    }
+  }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+
+import java.io.File;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Watches the script files of Groovy deployments and redeploys them when they change.
+ * <p>
+ * Each deployment tracks the files of its script and of the scripts it depends on. A periodic scan only checks the
+ * tracked files, a change invalidates the classes compiled from the changed files and redeploys the deployments
+ * depending on them. A deployment whose redeployment fails, e.g because of a compilation error, remains tracked and
+ * is deployed again on the next change of its files.
+ * <p>
+ * The redeployments have the same config, number of instances, threading model and class loader as the original
+ * deployments, the other {@link DeploymentOptions} are not visible from the verticle context and are not preserved,
+ * e.g the worker pool or the high availability options.
+ */
+public class ScriptReloader {
+
+  private static final Logger log = LoggerFactory.getLogger(ScriptReloader.class);
+
+  private final Vertx vertx;
+  private final long interval;
+  private final Consumer<URI> invalidator;
+  private final Map<String, Deployment> deployments = new HashMap<>();
+  // The deployments being redeployed, or whose redeployment failed
+  private final Set<Deployment> pending = new HashSet<>();
+  private final Map<URI, Long> timestamps = new HashMap<>();
+  private long timerID = -1L;
+  private boolean scanning;
+  private boolean closed;
+
+  /**
+   * @param vertx the vertx instance
+   * @param interval the scan interval in milliseconds
+   * @param invalidator called with the changed files before redeploying, to discard what was compiled from them
+   */
+  public ScriptReloader(Vertx vertx, long interval, Consumer<URI> invalidator) {
+    this.vertx = vertx;
+    this.interval = interval;
+    this.invalidator = invalidator;
+  }
+
+  /**
+   * Wrap a verticle so its deployment is tracked once started.
+   *
+   * @param verticleName the verticle name, as deployed
+   * @param classLoader the deployment class loader
+   * @param sources the script sources
+   * @param verticle the verticle
+   * @return the tracked verticle
+   */
+  public Verticle track(String verticleName, ClassLoader classLoader, Set<URI> sources, Verticle verticle) {
+    Set<URI> files = new HashSet<>();
+    for (URI source : sources) {
+      if ("file".equals(source.getScheme())) {
+        files.add(source);
+      }
+    }
+    if (files.isEmpty()) {
+      return verticle;
+    }
+    return new TrackedVerticle(verticleName, classLoader, files, verticle);
+  }
+
+  /**
+   * Stop watching.
+   */
+  public synchronized void close() {
+    closed = true;
+    if (timerID != -1L) {
+      vertx.cancelTimer(timerID);
+      timerID = -1L;
+    }
+    deployments.clear();
+    pending.clear();
+    timestamps.clear();
+  }
+
+  private synchronized void register(String deploymentID, Deployment deployment) {
+    if (closed || deployments.containsKey(deploymentID)) {
+      return;
+    }
+    deployments.put(deploymentID, deployment);
+    for (URI file : deployment.files) {
+      timestamps.computeIfAbsent(file, ScriptReloader::lastModified);
+    }
+    if (timerID == -1L) {
+      timerID = vertx.setPeriodic(interval, id -> scan());
+    }
+  }
+
+  private synchronized void unregister(String deploymentID) {
+    if (deployments.remove(deploymentID) != null) {
+      prune();
+    }
+  }
+
+  /**
+   * Stop watching the files no longer used by a deployment.
+   */
+  private void prune() {
+    Set<URI> files = new HashSet<>();
+    deployments.values().forEach(deployment -> files.addAll(deployment.files));
+    pending.forEach(deployment -> files.addAll(deployment.files));
+    timestamps.keySet().retainAll(files);
+  }
+
+  private void scan() {
+    Map<URI, Long> snapshot;
+    synchronized (this) {
+      if (scanning || (deployments.isEmpty() && pending.isEmpty())) {
+        return;
+      }
+      scanning = true;
+      snapshot = new HashMap<>(timestamps);
+    }
+    vertx.executeBlocking(() -> {
+      Map<URI, Long> changed = new HashMap<>();
+      snapshot.forEach((file, timestamp) -> {
+        long current = lastModified(file);
+        if (current != timestamp) {
+          changed.put(file, current);
+        }
+      });
+      return changed;
+    }).onComplete(ar -> {
+      synchronized (this) {
+        scanning = false;
+      }
+      if (ar.succeeded() && !ar.result().isEmpty()) {
+        reload(ar.result());
+      }
+    });
+  }
+
+  private void reload(Map<URI, Long> changed) {
+    Map<Deployment, String> affected = new HashMap<>();
+    synchronized (this) {
+      timestamps.putAll(changed);
+      for (Map.Entry<String, Deployment> entry : deployments.entrySet()) {
+        if (entry.getValue().dependsOn(changed.keySet())) {
+          affected.put(entry.getValue(), entry.getKey());
+        }
+      }
+      for (Deployment deployment : pending) {
+        if (deployment.dependsOn(changed.keySet())) {
+          if (deployment.redeploying) {
+            // Redeployed again once the current redeployment completes
+            deployment.changed = true;
+          } else {
+            // A failed redeployment, there is nothing to undeploy
+            affected.put(deployment, null);
+          }
+        }
+      }
+      for (Map.Entry<Deployment, String> entry : affected.entrySet()) {
+        // Tracked as pending until the new deployment registers itself
+        deployments.remove(entry.getValue());
+        entry.getKey().redeploying = true;
+        pending.add(entry.getKey());
+      }
+    }
+    changed.keySet().forEach(invalidator);
+    affected.forEach((deployment, deploymentID) -> {
+      log.info("Redeploying " + deployment.verticleName + " after changes to " + changed.keySet());
+      redeploy(deployment, deploymentID);
+    });
+  }
+
+  private void redeploy(Deployment deployment, String deploymentID) {
+    Future<Void> undeployed = deploymentID != null ? vertx.undeploy(deploymentID) : Future.succeededFuture();
+    undeployed
+      .compose(v -> vertx.deployVerticle(deployment.verticleName, deployment.options))
+      .onComplete(ar -> {
+        String redeployed = ar.succeeded() ? ar.result() : null;
+        boolean again;
+        synchronized (this) {
+          if (closed) {
+            return;
+          }
+          again = deployment.changed;
+          deployment.changed = false;
+          if (again) {
+            // The files changed during the redeployment, the new deployment may use the previous content
+            deployments.remove(redeployed);
+          } else {
+            deployment.redeploying = false;
+            if (ar.succeeded()) {
+              pending.remove(deployment);
+              prune();
+            }
+          }
+        }
+        if (again) {
+          redeploy(deployment, redeployed);
+        } else if (ar.failed()) {
+          log.error("Could not redeploy " + deployment.verticleName + ", it will be redeployed after the next change", ar.cause());
+        }
+      });
+  }
+
+  private static long lastModified(URI file) {
+    return new File(file).lastModified();
+  }
+
+  private static class Deployment {
+
+    private final String verticleName;
+    private final DeploymentOptions options;
+    private final Set<URI> files;
+    private boolean redeploying;
+    private boolean changed;
+
+    Deployment(String verticleName, DeploymentOptions options, Set<URI> files) {
+      this.verticleName = verticleName;
+      this.options = options;
+      this.files = files;
+    }
+
+    boolean dependsOn(Set<URI> changed) {
+      for (URI file : changed) {
+        if (files.contains(file)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private class TrackedVerticle implements Verticle {
+
+    private final String verticleName;
+    private final ClassLoader classLoader;
+    private final Set<URI> files;
+    private final Verticle delegate;
+    private String deploymentID;
+
+    TrackedVerticle(String verticleName, ClassLoader classLoader, Set<URI> files, Verticle delegate) {
+      this.verticleName = verticleName;
+      this.classLoader = classLoader;
+      this.files = files;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Vertx getVertx() {
+      return delegate.getVertx();
+    }
+
+    @Override
+    public void init(Vertx vertx, Context context) {
+      delegate.init(vertx, context);
+      deploymentID = context.deploymentID();
+      DeploymentOptions options = new DeploymentOptions()
+        .setConfig(context.config())
+        .setInstances(context.getInstanceCount())
+        .setThreadingModel(context.threadingModel())
+        .setClassLoader(classLoader);
+      register(deploymentID, new Deployment(verticleName, options, files));
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) throws Exception {
+      delegate.start(startPromise);
+    }
+
+    @Override
+    public void stop(Promise<Void> stopPromise) throws Exception {
+      unregister(deploymentID);
+      delegate.stop(stopPromise);
+    }
+  }
+}
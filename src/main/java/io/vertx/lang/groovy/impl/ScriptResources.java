@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.impl;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memoizes the lookup of the scripts and configuration resources of class loaders.
+ * <p>
+ * A found resource is reused as long as it exists: a file resource is checked for existence, other resources, e.g
+ * jar entries, are considered immutable. A missing resource is looked up again after a delay, so a resource added
+ * afterwards is eventually found.
+ */
+public class ScriptResources {
+
+  /**
+   * The location of a script.
+   */
+  public static final class Location {
+
+    private final URL url;
+    private final boolean classpath;
+    private final long expiration;
+
+    private Location(URL url, boolean classpath, long expiration) {
+      this.url = url;
+      this.classpath = classpath;
+      this.expiration = expiration;
+    }
+
+    /**
+     * @return the script URL or {@code null} when the script was not found
+     */
+    public URL url() {
+      return url;
+    }
+
+    /**
+     * @return whether the script is a class loader resource
+     */
+    public boolean isClasspath() {
+      return classpath;
+    }
+
+    private boolean isValid(long now) {
+      if (url == null) {
+        return now - expiration < 0L;
+      }
+      if ("file".equals(url.getProtocol())) {
+        try {
+          return new File(url.toURI()).exists();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private final long missTtl;
+  private final Map<ClassLoader, Map<String, Location>> cache = new WeakHashMap<>();
+
+  /**
+   * @param missTtlMillis how long a missing resource is remembered in milliseconds, {@code 0} to not remember them
+   */
+  public ScriptResources(long missTtlMillis) {
+    this.missTtl = TimeUnit.MILLISECONDS.toNanos(missTtlMillis);
+  }
+
+  /**
+   * Find a class loader resource.
+   *
+   * @param cl the class loader
+   * @param name the resource name
+   * @return the resource URL or {@code null}
+   */
+  public URL resource(ClassLoader cl, String name) {
+    return lookup(cl, name, false).url;
+  }
+
+  /**
+   * Find a script, the script is a class loader resource or otherwise a file, relative to the {@code user.dir}
+   * directory when the name is not absolute.
+   *
+   * @param cl the class loader
+   * @param name the script name
+   * @return the script location
+   */
+  public Location script(ClassLoader cl, String name) {
+    return lookup(cl, name, true);
+  }
+
+  /**
+   * Forget the resources of all class loaders.
+   */
+  public synchronized void clear() {
+    cache.clear();
+  }
+
+  private Location lookup(ClassLoader cl, String name, boolean file) {
+    Map<String, Location> locations;
+    synchronized (this) {
+      locations = cache.computeIfAbsent(cl, k -> new ConcurrentHashMap<>());
+    }
+    // Scripts and plain resources of the same name are distinct entries
+    String key = file ? "file:" + name : name;
+    long now = System.nanoTime();
+    Location location = locations.get(key);
+    if (location == null || !location.isValid(now)) {
+      location = find(cl, name, file, now);
+      if (location.url != null || missTtl > 0L) {
+        locations.put(key, location);
+      } else {
+        locations.remove(key);
+      }
+    }
+    return location;
+  }
+
+  private Location find(ClassLoader cl, String name, boolean file, long now) {
+    URL url = cl.getResource(name);
+    if (url != null) {
+      return new Location(url, true, 0L);
+    }
+    if (file) {
+      File f = new File(name);
+      if (!f.isAbsolute()) {
+        f = new File(System.getProperty("user.dir"), name);
+      }
+      if (f.exists() && f.isFile()) {
+        try {
+          return new Location(f.toURI().toURL(), false, 0L);
+        } catch (MalformedURLException ignore) {
+        }
+      }
+    }
+    return new Location(null, false, now + missTtl);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.transform;
+
+import org.codehaus.groovy.transform.GroovyASTTransformationClass;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Compiles a method written in a sequential style with {@code await} calls to a chain of {@link io.vertx.core.Future}
+ * compositions, the method returns a {@link io.vertx.core.Future} of its result:
+ *
+ * <pre>
+ * &#64;Async
+ * Future&lt;String&gt; greeting(String id) {
+ *   def user = await(users.find(id))
+ *   def settings = await(settings.load(user))
+ *   "${settings.greeting} ${user.name}"
+ * }
+ * </pre>
+ *
+ * is compiled to
+ *
+ * <pre>
+ * Future&lt;String&gt; greeting(String id) {
+ *   try {
+ *     return users.find(id).compose { user -&gt;
+ *       return settings.load(user).compose { settings -&gt;
+ *         return Future.succeededFuture("${settings.greeting} ${user.name}")
+ *       }
+ *     }
+ *   } catch (Throwable t) {
+ *     return Future.failedFuture(t)
+ *   }
+ * }
+ * </pre>
+ *
+ * An {@code await} call must be a statement, the initializer of a variable declaration or a returned value, at the top
+ * level of the method body. The values returned by the method are wrapped in succeeded futures, an exception thrown
+ * by the method fails the returned future.
+ *
+ * <p> Annotating a class applies the transformation to each of its methods returning a {@link io.vertx.core.Future}
+ * that calls {@code await}, it can be applied to all the compiled scripts with an
+ * {@code ASTTransformationCustomizer} in the compiler configuration.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@GroovyASTTransformationClass("io.vertx.lang.groovy.transform.AsyncASTTransformation")
+public @interface Async {
+}
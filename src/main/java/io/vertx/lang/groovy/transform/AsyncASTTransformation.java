@@ -0,0 +1,311 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.transform;
+
+import io.vertx.core.Future;
+import io.vertx.lang.groovy.Await;
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.VariableScope;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.DeclarationExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.TupleExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.CatchStatement;
+import org.codehaus.groovy.ast.stmt.EmptyStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.ast.stmt.TryCatchStatement;
+import org.codehaus.groovy.classgen.VariableScopeVisitor;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.transform.AbstractASTTransformation;
+import org.codehaus.groovy.transform.GroovyASTTransformation;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.codehaus.groovy.ast.tools.GeneralUtils.block;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.callX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.classX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.constX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.param;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.returnS;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.varX;
+
+/**
+ * The transformation of the {@link Async} annotation, it rewrites the method body in continuation passing style:
+ * the statements following an {@code await(future)} statement become the body of a closure composed with the
+ * awaited future. Only the calls to {@link Await#await(Future)}, statically imported or with an explicit {@code Await}
+ * receiver, are rewritten.
+ */
+@GroovyASTTransformation(phase = CompilePhase.SEMANTIC_ANALYSIS)
+public class AsyncASTTransformation extends AbstractASTTransformation {
+
+  private static final ClassNode FUTURE_TYPE = ClassHelper.make(Future.class);
+  private static final ClassNode AWAIT_TYPE = ClassHelper.make(Await.class);
+  private static final ClassNode THROWABLE_TYPE = ClassHelper.make(Throwable.class);
+  private static final String AWAIT = "await";
+
+  private enum Kind { STATEMENT, DECLARATION, RETURN }
+
+  private static class AwaitStatement {
+
+    private final Kind kind;
+    private final Expression future;
+    private final VariableExpression variable;
+
+    private AwaitStatement(Kind kind, Expression future, VariableExpression variable) {
+      this.kind = kind;
+      this.future = future;
+      this.variable = variable;
+    }
+  }
+
+  private int counter;
+
+  @Override
+  public void visit(ASTNode[] nodes, SourceUnit source) {
+    init(nodes, source);
+    if (nodes[1] instanceof MethodNode) {
+      MethodNode method = (MethodNode) nodes[1];
+      transform(method);
+      new VariableScopeVisitor(source, true).visitClass(method.getDeclaringClass());
+    } else if (nodes[1] instanceof ClassNode) {
+      ClassNode clazz = (ClassNode) nodes[1];
+      boolean transformed = false;
+      for (MethodNode method : clazz.getMethods()) {
+        if (method.getCode() != null && isFuture(method.getReturnType()) && containsAwait(method.getCode())) {
+          transform(method);
+          transformed = true;
+        }
+      }
+      if (transformed) {
+        new VariableScopeVisitor(source, true).visitClass(clazz);
+      }
+    }
+  }
+
+  private void transform(MethodNode method) {
+    ClassNode returnType = method.getReturnType();
+    if (!returnType.equals(ClassHelper.OBJECT_TYPE) && !isFuture(returnType)) {
+      addError("An @Async method must return a " + Future.class.getName(), method);
+      return;
+    }
+    if (method.getCode() == null) {
+      addError("An @Async method must have a body", method);
+      return;
+    }
+    Statement code = method.getCode();
+    List<Statement> statements = code instanceof BlockStatement ? ((BlockStatement) code).getStatements() : Collections.singletonList(code);
+    BlockStatement body = rewrite(statements, 0);
+    Parameter failure = param(THROWABLE_TYPE, "$asyncFailure");
+    TryCatchStatement tryCatch = new TryCatchStatement(body, EmptyStatement.INSTANCE);
+    tryCatch.addCatch(new CatchStatement(failure, returnS(callX(classX(FUTURE_TYPE), "failedFuture", varX(failure)))));
+    method.setCode(block(new VariableScope(method.getVariableScope()), tryCatch));
+  }
+
+  /**
+   * Rewrite the statements starting at {@code from}, the returned block returns a future.
+   */
+  private BlockStatement rewrite(List<Statement> statements, int from) {
+    BlockStatement block = new BlockStatement();
+    for (int i = from;i < statements.size();i++) {
+      Statement statement = statements.get(i);
+      boolean last = i == statements.size() - 1;
+      AwaitStatement await = matchAwait(statement);
+      if (await == null) {
+        checkNoAwait(statement);
+        if (last && statement instanceof ExpressionStatement && !(((ExpressionStatement) statement).getExpression() instanceof DeclarationExpression)) {
+          // The value of the last expression is the implicit return value
+          block.addStatement(returnS(succeeded(((ExpressionStatement) statement).getExpression())));
+          return block;
+        }
+        wrapReturns(statement);
+        block.addStatement(statement);
+        if (statement instanceof ReturnStatement) {
+          return block;
+        }
+      } else {
+        checkNoAwait(await.future);
+        if (await.kind == Kind.RETURN || (last && await.kind == Kind.STATEMENT)) {
+          block.addStatement(returnS(await.future));
+          return block;
+        }
+        Parameter parameter;
+        if (await.kind == Kind.DECLARATION) {
+          parameter = param(await.variable.getOriginType(), await.variable.getName());
+        } else {
+          parameter = param(ClassHelper.OBJECT_TYPE, "$asyncIgnored" + counter++);
+        }
+        ClosureExpression continuation = new ClosureExpression(new Parameter[]{parameter}, rewrite(statements, i + 1));
+        continuation.setVariableScope(new VariableScope());
+        block.addStatement(returnS(callX(await.future, "compose", continuation)));
+        return block;
+      }
+    }
+    block.addStatement(returnS(succeeded(ConstantExpression.NULL)));
+    return block;
+  }
+
+  private static boolean isFuture(ClassNode type) {
+    return type.equals(FUTURE_TYPE) || type.implementsInterface(FUTURE_TYPE);
+  }
+
+  private static Expression succeeded(Expression value) {
+    return callX(classX(FUTURE_TYPE), "succeededFuture", value);
+  }
+
+  private static AwaitStatement matchAwait(Statement statement) {
+    if (statement instanceof ReturnStatement) {
+      Expression future = awaitedFuture(((ReturnStatement) statement).getExpression());
+      return future != null ? new AwaitStatement(Kind.RETURN, future, null) : null;
+    } else if (statement instanceof ExpressionStatement) {
+      Expression expression = ((ExpressionStatement) statement).getExpression();
+      if (expression instanceof DeclarationExpression) {
+        DeclarationExpression declaration = (DeclarationExpression) expression;
+        Expression future = awaitedFuture(declaration.getRightExpression());
+        if (future != null && !declaration.isMultipleAssignmentDeclaration()) {
+          return new AwaitStatement(Kind.DECLARATION, future, declaration.getVariableExpression());
+        }
+      } else {
+        Expression future = awaitedFuture(expression);
+        if (future != null) {
+          return new AwaitStatement(Kind.STATEMENT, future, null);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the future argument when {@code expression} is an {@link Await#await(Future)} call, {@code null} otherwise
+   */
+  private static Expression awaitedFuture(Expression expression) {
+    Expression arguments;
+    if (expression instanceof MethodCallExpression) {
+      // An explicit Await.await(future) call, an implicit this call is another await method
+      MethodCallExpression call = (MethodCallExpression) expression;
+      Expression receiver = call.getObjectExpression();
+      if (!(receiver instanceof ClassExpression) || !receiver.getType().equals(AWAIT_TYPE) || !AWAIT.equals(call.getMethodAsString())) {
+        return null;
+      }
+      arguments = call.getArguments();
+    } else if (expression instanceof StaticMethodCallExpression) {
+      // A statically imported await(future) call, resolved by the semantic analysis before this transformation
+      StaticMethodCallExpression call = (StaticMethodCallExpression) expression;
+      if (!AWAIT.equals(call.getMethod()) || !call.getOwnerType().equals(AWAIT_TYPE)) {
+        return null;
+      }
+      arguments = call.getArguments();
+    } else {
+      return null;
+    }
+    if (arguments instanceof TupleExpression && ((TupleExpression) arguments).getExpressions().size() == 1) {
+      return ((TupleExpression) arguments).getExpression(0);
+    }
+    return null;
+  }
+
+  private static boolean containsAwait(Statement statement) {
+    boolean[] found = new boolean[1];
+    statement.visit(new AwaitFinder() {
+      @Override
+      void found(Expression call) {
+        found[0] = true;
+      }
+    });
+    return found[0];
+  }
+
+  private void checkNoAwait(ASTNode node) {
+    AwaitFinder finder = new AwaitFinder() {
+      @Override
+      void found(Expression call) {
+        addError("await must be a statement, a variable initializer or a returned value at the top level of an @Async method", call);
+      }
+    };
+    if (node instanceof Statement) {
+      ((Statement) node).visit(finder);
+    } else {
+      ((Expression) node).visit(finder);
+    }
+  }
+
+  private abstract static class AwaitFinder extends ClassCodeVisitorSupport {
+
+    @Override
+    protected SourceUnit getSourceUnit() {
+      return null;
+    }
+
+    abstract void found(Expression call);
+
+    @Override
+    public void visitMethodCallExpression(MethodCallExpression call) {
+      if (awaitedFuture(call) != null) {
+        found(call);
+      }
+      super.visitMethodCallExpression(call);
+    }
+
+    @Override
+    public void visitStaticMethodCallExpression(StaticMethodCallExpression call) {
+      if (awaitedFuture(call) != null) {
+        found(call);
+      }
+      super.visitStaticMethodCallExpression(call);
+    }
+  }
+
+  /**
+   * Wrap the values returned by a statement in succeeded futures, closures are not visited since their returns
+   * belong to the closure.
+   */
+  private void wrapReturns(Statement statement) {
+    statement.visit(new ClassCodeVisitorSupport() {
+      @Override
+      protected SourceUnit getSourceUnit() {
+        return sourceUnit;
+      }
+
+      @Override
+      public void visitReturnStatement(ReturnStatement statement) {
+        if (statement == ReturnStatement.RETURN_NULL_OR_VOID) {
+          addError("Unexpected shared return statement", statement);
+          return;
+        }
+        Expression value = statement.getExpression();
+        statement.setExpression(succeeded(value == ConstantExpression.EMPTY_EXPRESSION ? ConstantExpression.NULL : value));
+      }
+
+      @Override
+      public void visitClosureExpression(ClosureExpression expression) {
+      }
+    });
+  }
+}
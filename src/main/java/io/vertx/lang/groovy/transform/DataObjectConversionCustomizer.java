@@ -0,0 +1,396 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.transform;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+import org.codehaus.groovy.ast.ClassCodeExpressionTransformer;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.MapEntryExpression;
+import org.codehaus.groovy.ast.expr.MapExpression;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.codehaus.groovy.ast.tools.GeneralUtils.callX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.castX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.classX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ctorX;
+
+/**
+ * Compiles the conversion of a map literal to a data object, e.g {@code [port: 8080, host: 'localhost'] as
+ * ServerConfig}, to the setter calls of the data object, e.g {@code new ServerConfig().setPort(8080)
+ * .setHost('localhost')}, instead of building a {@link JsonObject} converted by the data object JSON constructor at
+ * runtime.
+ * <p>
+ * The setter calls must have the same effect than the JSON constructor, so a conversion is compiled only for a data
+ * object annotated with {@code @JsonGen} with the default JSON property naming, whose JSON constructor only applies
+ * the generated converter after the no-arg constructor, i.e {@code this(); FooConverter.fromJson(json, this);}. The
+ * constructor is checked on the class file of the data object, a data object with another JSON naming or whose JSON
+ * constructor validates or initializes anything else is converted at runtime.
+ * <p>
+ * A conversion is compiled only when each key of the map is a constant naming a single fluent setter handled by the
+ * converter, i.e declared by the data object class or also by its superclasses with {@code @JsonGen(inheritConverter =
+ * true)}, and each value is known to be accepted by the setter: a nested map literal for a data object or a
+ * {@link JsonObject} parameter, a string constant for an enum parameter, or a string, number or boolean constant for a
+ * parameter of such type. The converter skips the values of another type and narrows the numbers, so conversions with
+ * variable or {@code null} values are left to the runtime conversion, like any other conversion.
+ * <p>
+ * Verticle scripts are compiled with this customizer when the {@code compilerConfiguration.groovy} declares
+ * {@code dataObjectConversion = true}.
+ */
+public class DataObjectConversionCustomizer extends CompilationCustomizer {
+
+  private static final ClassNode DATA_OBJECT_TYPE = ClassHelper.make(DataObject.class);
+  private static final ClassNode JSON_OBJECT_TYPE = ClassHelper.make(JsonObject.class);
+  private static final String JSON_GEN_DESC = "Lio/vertx/codegen/json/annotations/JsonGen;";
+  private static final String DEFAULT_NAMING_DESC = "Lio/vertx/codegen/format/LowerCamelCase;";
+  private static final String JSON_CONSTRUCTOR_DESC = "(Lio/vertx/core/json/JsonObject;)V";
+
+  public DataObjectConversionCustomizer() {
+    super(CompilePhase.SEMANTIC_ANALYSIS);
+  }
+
+  @Override
+  public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+    Map<ClassNode, GeneratedConverter> converters = new HashMap<>();
+    Function<ClassNode, GeneratedConverter> generated = type -> converters.computeIfAbsent(type, t -> generatedConverter(t, source.getClassLoader()));
+    new ClassCodeExpressionTransformer() {
+      @Override
+      protected SourceUnit getSourceUnit() {
+        return source;
+      }
+
+      @Override
+      public Expression transform(Expression expression) {
+        if (expression instanceof CastExpression) {
+          CastExpression cast = (CastExpression) expression;
+          if (cast.isCoerce() && cast.getExpression() instanceof MapExpression) {
+            Expression map = transform(cast.getExpression());
+            Expression setters = convert((MapExpression) map, cast.getType(), generated);
+            if (setters != null) {
+              setters.setSourcePosition(cast);
+              return setters;
+            }
+          }
+        }
+        return super.transform(expression);
+      }
+    }.visitClass(classNode);
+  }
+
+  /**
+   * @return the setter calls creating the data object or {@code null} when the conversion must be left to the runtime
+   */
+  static Expression convert(MapExpression map, ClassNode type, Function<ClassNode, GeneratedConverter> generated) {
+    if (!isDataObject(type) || type.isInterface() || type.isAbstract() || !hasNoArgConstructor(type)) {
+      return null;
+    }
+    GeneratedConverter converter = generated.apply(type);
+    if (converter == GeneratedConverter.NONE) {
+      return null;
+    }
+    List<Expression> values = new ArrayList<>();
+    List<MethodNode> setters = new ArrayList<>();
+    for (MapEntryExpression entry : map.getMapEntryExpressions()) {
+      if (!(entry.getKeyExpression() instanceof ConstantExpression) || !(((ConstantExpression) entry.getKeyExpression()).getValue() instanceof String)) {
+        return null;
+      }
+      String key = (String) ((ConstantExpression) entry.getKeyExpression()).getValue();
+      MethodNode setter = findSetter(type, key, converter == GeneratedConverter.INHERITED);
+      if (setter == null) {
+        return null;
+      }
+      Expression value = convertValue(entry.getValueExpression(), setter.getParameters()[0].getType(), generated);
+      if (value == null) {
+        return null;
+      }
+      setters.add(setter);
+      values.add(value);
+    }
+    Expression result = ctorX(type);
+    for (int i = 0;i < setters.size();i++) {
+      MethodNode setter = setters.get(i);
+      result = callX(result, setter.getName(), values.get(i));
+      if (!setter.getReturnType().equals(type)) {
+        // Keep the static type of the chain for statically compiled code
+        result = castX(type, result);
+      }
+    }
+    return result;
+  }
+
+  private static Expression convertValue(Expression value, ClassNode paramType, Function<ClassNode, GeneratedConverter> generated) {
+    if (value instanceof MapExpression) {
+      if (paramType.equals(JSON_OBJECT_TYPE)) {
+        return ctorX(JSON_OBJECT_TYPE, value);
+      }
+      return convert((MapExpression) value, paramType, generated);
+    }
+    if (paramType.isEnum()) {
+      if (value instanceof ConstantExpression && ((ConstantExpression) value).getValue() instanceof String) {
+        return callX(classX(paramType), "valueOf", value);
+      }
+      return null;
+    }
+    ClassNode wrapper = ClassHelper.getWrapper(paramType);
+    if (wrapper.equals(ClassHelper.STRING_TYPE) || wrapper.equals(ClassHelper.Boolean_TYPE) || ClassHelper.isNumberType(wrapper)) {
+      // The converter skips the values of another type, null included, and narrows the numbers, only the constants
+      // the setter accepts as is are compiled
+      if (value instanceof ConstantExpression) {
+        Object constant = ((ConstantExpression) value).getValue();
+        boolean accepted = wrapper.equals(ClassHelper.STRING_TYPE) ? constant instanceof String
+          : wrapper.equals(ClassHelper.Boolean_TYPE) ? constant instanceof Boolean
+          : constant instanceof Number && isAssignableNumber((Number) constant, wrapper);
+        return accepted ? value : null;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isAssignableNumber(Number constant, ClassNode wrapper) {
+    if (constant instanceof Integer) {
+      return !wrapper.equals(ClassHelper.Short_TYPE) && !wrapper.equals(ClassHelper.Byte_TYPE);
+    } else if (constant instanceof Long) {
+      return wrapper.equals(ClassHelper.Long_TYPE) || wrapper.equals(ClassHelper.Float_TYPE) || wrapper.equals(ClassHelper.Double_TYPE);
+    } else {
+      return wrapper.equals(ClassHelper.make(constant.getClass()));
+    }
+  }
+
+  private static boolean isDataObject(ClassNode type) {
+    return !type.getAnnotations(DATA_OBJECT_TYPE).isEmpty();
+  }
+
+  private static boolean hasNoArgConstructor(ClassNode type) {
+    return type.getDeclaredConstructors().stream().anyMatch(ctor -> ctor.isPublic() && ctor.getParameters().length == 0);
+  }
+
+  /**
+   * @return the converter the JSON constructor of the data object only applies, {@link GeneratedConverter#NONE} when
+   * the constructor does something else or the converter does not use the default JSON naming
+   */
+  static GeneratedConverter generatedConverter(ClassNode type, ClassLoader loader) {
+    if (type.isPrimaryClassNode() || loader == null) {
+      // Compiled from source, no converter is generated
+      return GeneratedConverter.NONE;
+    }
+    String internalName = type.getName().replace('.', '/');
+    byte[] bytecode;
+    try (InputStream in = loader.getResourceAsStream(internalName + ".class")) {
+      if (in == null) {
+        return GeneratedConverter.NONE;
+      }
+      bytecode = in.readAllBytes();
+    } catch (IOException e) {
+      return GeneratedConverter.NONE;
+    }
+    JsonConstructorVisitor visitor = new JsonConstructorVisitor(internalName);
+    new ClassReader(bytecode).accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    if (!visitor.jsonGen || !visitor.defaultNaming || !visitor.expected.equals(visitor.instructions)) {
+      return GeneratedConverter.NONE;
+    }
+    return visitor.inheritConverter ? GeneratedConverter.INHERITED : GeneratedConverter.DECLARED;
+  }
+
+  /**
+   * Find the single public one argument setter for the {@code key} property, searching the most derived declaration.
+   * The superclasses are searched only when the converter handles the inherited properties, like the converter does.
+   */
+  private static MethodNode findSetter(ClassNode type, String key, boolean inherited) {
+    if (key.isEmpty()) {
+      return null;
+    }
+    String name = "set" + Character.toUpperCase(key.charAt(0)) + key.substring(1);
+    for (ClassNode current = type;current != null;current = inherited ? current.getSuperClass() : null) {
+      MethodNode found = null;
+      for (MethodNode method : current.getDeclaredMethods(name)) {
+        Parameter[] params = method.getParameters();
+        if (method.isPublic() && !method.isStatic() && !method.isSynthetic() && (method.getModifiers() & Opcodes.ACC_BRIDGE) == 0 && params.length == 1) {
+          if (found != null) {
+            // Overloaded setter, the runtime conversion is used
+            return null;
+          }
+          found = method;
+        }
+      }
+      if (found != null) {
+        return type.isDerivedFrom(found.getReturnType()) ? found : null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The properties handled by the generated converter of a data object.
+   */
+  enum GeneratedConverter {
+    // No generated converter
+    NONE,
+    // The properties declared by the data object class
+    DECLARED,
+    // The properties declared by the data object class and its superclasses
+    INHERITED
+  }
+
+  /**
+   * Records the instructions of the JSON constructor and the JSON naming of a data object class.
+   */
+  private static class JsonConstructorVisitor extends ClassVisitor {
+
+    private static final String OTHER = "other";
+
+    private final List<String> expected;
+    private final List<String> instructions = new ArrayList<>();
+    private boolean jsonGen;
+    private boolean defaultNaming = true;
+    private boolean inheritConverter;
+
+    JsonConstructorVisitor(String owner) {
+      super(Opcodes.ASM9);
+      // this(); OwnerConverter.fromJson(json, this);
+      this.expected = Arrays.asList(
+        Opcodes.ALOAD + " 0",
+        Opcodes.INVOKESPECIAL + " " + owner + ".<init>()V",
+        Opcodes.ALOAD + " 1",
+        Opcodes.ALOAD + " 0",
+        Opcodes.INVOKESTATIC + " " + owner + "Converter.fromJson(Ljava/lang/Iterable;L" + owner + ";)V",
+        String.valueOf(Opcodes.RETURN));
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+      if (!descriptor.equals(JSON_GEN_DESC)) {
+        return null;
+      }
+      jsonGen = true;
+      return new AnnotationVisitor(Opcodes.ASM9) {
+        @Override
+        public void visit(String name, Object value) {
+          if (name.equals("jsonPropertyNameFormatter") && !((Type) value).getDescriptor().equals(DEFAULT_NAMING_DESC)) {
+            defaultNaming = false;
+          } else if (name.equals("inheritConverter")) {
+            inheritConverter = (Boolean) value;
+          }
+        }
+      };
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+      if (!name.equals("<init>") || !descriptor.equals(JSON_CONSTRUCTOR_DESC)) {
+        return null;
+      }
+      return new MethodVisitor(Opcodes.ASM9) {
+        @Override
+        public void visitInsn(int opcode) {
+          instructions.add(String.valueOf(opcode));
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int varIndex) {
+          instructions.add(opcode + " " + varIndex);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+          instructions.add(opcode + " " + owner + "." + name + descriptor);
+        }
+
+        // Any other instruction does more than applying the converter
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitIincInsn(int varIndex, int increment) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+          instructions.add(OTHER);
+        }
+
+        @Override
+        public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+          instructions.add(OTHER);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.transform;
+
+import io.vertx.lang.groovy.ScriptBudget;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.VariableScope;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.DoWhileStatement;
+import org.codehaus.groovy.ast.stmt.ForStatement;
+import org.codehaus.groovy.ast.stmt.LoopingStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.ast.stmt.WhileStatement;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.codehaus.groovy.ast.tools.GeneralUtils.args;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.constX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.ctorX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.fieldX;
+import static org.codehaus.groovy.ast.tools.GeneralUtils.stmt;
+
+/**
+ * Compiles a {@link ScriptBudget#tick()} call at the beginning of each loop iteration, closure and method of a script.
+ * <p>
+ * The budget is a static field of the script class, or of the first class of a source without script, shared by
+ * all the classes of the source. The calls are direct calls, they do not go through the Groovy call sites.
+ */
+public class ScriptBudgetCustomizer extends CompilationCustomizer {
+
+  private static final ClassNode BUDGET_TYPE = ClassHelper.make(ScriptBudget.class);
+
+  private final long maxIterations;
+  private final long period;
+  private final long maxCpuTime;
+  private final long maxAllocation;
+
+  /**
+   * @param maxIterations the maximum number of ticks per period, {@code 0} for no limit
+   * @param periodMillis the period duration in milliseconds
+   * @param maxCpuTimeMillis the maximum CPU time of a run in milliseconds, {@code 0} for no limit
+   * @param maxAllocation the maximum number of bytes allocated by a run, {@code 0} for no limit
+   */
+  public ScriptBudgetCustomizer(long maxIterations, long periodMillis, long maxCpuTimeMillis, long maxAllocation) {
+    super(CompilePhase.CANONICALIZATION);
+    this.maxIterations = maxIterations;
+    this.period = periodMillis;
+    this.maxCpuTime = maxCpuTimeMillis;
+    this.maxAllocation = maxAllocation;
+  }
+
+  @Override
+  public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+    FieldNode budget = budgetField(classNode.getModule());
+    MethodNode tick = BUDGET_TYPE.getMethods("tick").get(0);
+    new ClassCodeVisitorSupport() {
+      @Override
+      protected SourceUnit getSourceUnit() {
+        return source;
+      }
+
+      @Override
+      protected void visitConstructorOrMethod(MethodNode node, boolean isConstructor) {
+        if (!isConstructor && node.getCode() != null) {
+          node.setCode(prepend(node.getCode()));
+        }
+        super.visitConstructorOrMethod(node, isConstructor);
+      }
+
+      @Override
+      public void visitClosureExpression(ClosureExpression expression) {
+        if (expression.getCode() != null) {
+          expression.setCode(prepend(expression.getCode()));
+        }
+        super.visitClosureExpression(expression);
+      }
+
+      @Override
+      public void visitForLoop(ForStatement loop) {
+        instrument(loop);
+        super.visitForLoop(loop);
+      }
+
+      @Override
+      public void visitWhileLoop(WhileStatement loop) {
+        instrument(loop);
+        super.visitWhileLoop(loop);
+      }
+
+      @Override
+      public void visitDoWhileLoop(DoWhileStatement loop) {
+        instrument(loop);
+        super.visitDoWhileLoop(loop);
+      }
+
+      private void instrument(LoopingStatement loop) {
+        loop.setLoopBlock(prepend(loop.getLoopBlock()));
+      }
+
+      private Statement prepend(Statement code) {
+        MethodCallExpression call = new MethodCallExpression(fieldX(budget), "tick", args());
+        call.setImplicitThis(false);
+        call.setMethodTarget(tick);
+        if (code instanceof BlockStatement) {
+          ((BlockStatement) code).getStatements().add(0, stmt(call));
+          return code;
+        }
+        List<Statement> statements = new ArrayList<>();
+        statements.add(stmt(call));
+        statements.add(code);
+        return new BlockStatement(statements, new VariableScope());
+      }
+    }.visitClass(classNode);
+  }
+
+  private FieldNode budgetField(ModuleNode module) {
+    ClassNode owner = module.getClasses().stream().filter(ClassNode::isScript).findFirst().orElse(module.getClasses().get(0));
+    FieldNode field = owner.getDeclaredField(ScriptBudget.FIELD_NAME);
+    if (field == null) {
+      field = owner.addField(ScriptBudget.FIELD_NAME, Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+        BUDGET_TYPE, ctorX(BUDGET_TYPE, args(constX(maxIterations), constX(period), constX(maxCpuTime), constX(maxAllocation))));
+    }
+    return field;
+  }
+}
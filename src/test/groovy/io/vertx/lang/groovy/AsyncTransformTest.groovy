@@ -0,0 +1,151 @@
+package io.vertx.lang.groovy
+
+import io.vertx.core.Future
+import io.vertx.core.Promise
+import io.vertx.lang.groovy.transform.Async
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer
+import org.junit.Test
+
+import static io.vertx.lang.groovy.Await.await
+import static org.junit.Assert.*
+
+class AsyncTransformTest {
+
+  List<String> steps = []
+
+  @Async
+  Future<Integer> sum(Future<Integer> a, Future<Integer> b) {
+    steps << "start"
+    def x = await(a)
+    steps << "got " + x
+    int y = await(b)
+    steps << "got " + y
+    x + y
+  }
+
+  @Async
+  Future<String> early(boolean stop, Future<String> value) {
+    if (stop) {
+      return "stopped"
+    }
+    await(value)
+  }
+
+  @Async
+  Future<Void> failing(Future<String> value) {
+    def s = await(value)
+    throw new IllegalStateException(s)
+  }
+
+  @Async
+  def fails() {
+    throw new IllegalArgumentException()
+  }
+
+  @Test
+  void testSequentialAwait() {
+    Promise<Integer> a = Promise.promise()
+    Promise<Integer> b = Promise.promise()
+    def result = sum(a.future(), b.future())
+    assertEquals(["start"], steps)
+    a.complete(1)
+    assertEquals(["start", "got 1"], steps)
+    assertFalse(result.isComplete())
+    b.complete(2)
+    assertEquals(3, result.result())
+    assertEquals(["start", "got 1", "got 2"], steps)
+  }
+
+  @Test
+  void testFailurePropagation() {
+    Promise<Integer> a = Promise.promise()
+    def result = sum(a.future(), Future.succeededFuture(2))
+    def cause = new Exception()
+    a.fail(cause)
+    assertSame(cause, result.cause())
+  }
+
+  @Test
+  void testReturn() {
+    assertEquals("stopped", early(true, Future.failedFuture("unused")).result())
+    assertEquals("value", early(false, Future.succeededFuture("value")).result())
+  }
+
+  @Test
+  void testThrow() {
+    assertEquals("boom", failing(Future.succeededFuture("boom")).cause().message)
+    assertTrue(fails().cause() instanceof IllegalArgumentException)
+  }
+
+  @Test
+  void testCustomizer() {
+    def config = new CompilerConfiguration()
+    config.addCompilationCustomizers(new ASTTransformationCustomizer(Async))
+    def shell = new GroovyShell(config)
+    def result = shell.evaluate('''
+      import io.vertx.core.Future
+      import static io.vertx.lang.groovy.Await.await
+      Future<Integer> twice(Future<Integer> f) {
+        def v = await(f)
+        v * 2
+      }
+      twice(Future.succeededFuture(21))
+    ''')
+    assertEquals(42, result.result())
+  }
+
+  @Test
+  void testNestedAwaitIsRejected() {
+    try {
+      new GroovyShell().evaluate('''
+        import io.vertx.core.Future
+        import static io.vertx.lang.groovy.Await.await
+        @io.vertx.lang.groovy.transform.Async
+        Future<Integer> nested(Future<Integer> f) {
+          if (true) {
+            def v = await(f)
+          }
+        }
+      ''')
+      fail()
+    } catch (MultipleCompilationErrorsException e) {
+      assertTrue(e.message.contains("await must be"))
+    }
+  }
+
+  @Test
+  void testExplicitAwaitReceiver() {
+    def result = new GroovyShell().evaluate('''
+      import io.vertx.core.Future
+      import io.vertx.lang.groovy.Await
+      @io.vertx.lang.groovy.transform.Async
+      Future<Integer> twice(Future<Integer> f) {
+        def v = Await.await(f)
+        v * 2
+      }
+      twice(Future.succeededFuture(21))
+    ''')
+    assertEquals(42, result.result())
+  }
+
+  @Test
+  void testUnrelatedAwaitMethodIsNotRewritten() {
+    def config = new CompilerConfiguration()
+    config.addCompilationCustomizers(new ASTTransformationCustomizer(Async))
+    def result = new GroovyShell(config).evaluate('''
+      import io.vertx.core.Future
+      def await(Future<Integer> f) {
+        f.map { it + 1 }
+      }
+      Future<Integer> next(Future<Integer> f) {
+        def v = await(f)
+        v
+      }
+      next(Future.succeededFuture(1))
+    ''')
+    // The method is not transformed, it returns the future of the user method
+    assertEquals(2, result.result())
+  }
+}
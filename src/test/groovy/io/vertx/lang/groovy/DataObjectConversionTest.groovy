@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy
+
+import io.vertx.core.DeploymentOptions
+import io.vertx.core.ThreadingModel
+import io.vertx.core.http.HttpServerOptions
+import io.vertx.lang.groovy.support.TestExtendedDataObject
+import io.vertx.lang.groovy.support.TestFluentDataObject
+import io.vertx.lang.groovy.support.TestFluentDataObjectConverter
+import io.vertx.lang.groovy.support.TestSnakeCaseDataObject
+import io.vertx.lang.groovy.transform.DataObjectConversionCustomizer
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class DataObjectConversionTest {
+
+  static Object eval(String script, boolean customized = true) {
+    def config = new CompilerConfiguration()
+    if (customized) {
+      config.addCompilationCustomizers(new DataObjectConversionCustomizer())
+    }
+    new GroovyShell(DataObjectConversionTest.classLoader, config).evaluate(script)
+  }
+
+  @Test
+  void testSetters() {
+    int conversions = TestFluentDataObjectConverter.conversions.get()
+    TestFluentDataObject o = eval("""
+      import io.vertx.lang.groovy.support.TestFluentDataObject
+      [name: 'foo', size: 3, child: [name: 'bar']] as TestFluentDataObject
+    """)
+    assertEquals('foo', o.name)
+    assertEquals(3, o.size)
+    assertEquals('bar', o.child.name)
+    assertEquals(conversions, TestFluentDataObjectConverter.conversions.get())
+  }
+
+  @Test
+  void testDynamicValues() {
+    // The converter narrows the long and skips the values of another type, the conversion happens at runtime
+    String script = """
+      import io.vertx.lang.groovy.support.TestFluentDataObject
+      def suffix = 'oo'
+      long size = 4
+      [name: "f\${suffix}", size: size] as TestFluentDataObject
+    """
+    int conversions = TestFluentDataObjectConverter.conversions.get()
+    TestFluentDataObject o = eval(script)
+    TestFluentDataObject expected = eval(script, false)
+    assertEquals(conversions + 2, TestFluentDataObjectConverter.conversions.get())
+    assertEquals(expected.name, o.name)
+    assertEquals(4, o.size)
+  }
+
+  @Test
+  void testNullValue() {
+    int conversions = TestFluentDataObjectConverter.conversions.get()
+    TestFluentDataObject o = eval("""
+      import io.vertx.lang.groovy.support.TestFluentDataObject
+      [name: null, size: 3] as TestFluentDataObject
+    """)
+    assertEquals(conversions + 1, TestFluentDataObjectConverter.conversions.get())
+    assertNull(o.name)
+    assertEquals(3, o.size)
+  }
+
+  @Test
+  void testInheritedSetterNotHandledByTheConverter() {
+    // The converter of TestExtendedDataObject ignores the inherited name property
+    String script = """
+      import io.vertx.lang.groovy.support.TestExtendedDataObject
+      [name: 'foo', color: 'red'] as TestExtendedDataObject
+    """
+    TestExtendedDataObject o = eval(script)
+    assertNull(o.name)
+    assertEquals('red', o.color)
+    assertNull(((TestExtendedDataObject) eval(script, false)).name)
+    o = eval("""
+      import io.vertx.lang.groovy.support.TestExtendedDataObject
+      [color: 'red'] as TestExtendedDataObject
+    """)
+    assertEquals('red', o.color)
+  }
+
+  @Test
+  void testRuntimeFallback() {
+    // The unknown key leaves the conversion to the JSON constructor
+    int conversions = TestFluentDataObjectConverter.conversions.get()
+    TestFluentDataObject o = eval("""
+      import io.vertx.lang.groovy.support.TestFluentDataObject
+      [name: 'foo', unknown: true] as TestFluentDataObject
+    """)
+    assertEquals('foo', o.name)
+    assertEquals(conversions + 1, TestFluentDataObjectConverter.conversions.get())
+    o = eval("""
+      import io.vertx.lang.groovy.support.TestFluentDataObject
+      [name: 'foo'] as TestFluentDataObject
+    """, false)
+    assertEquals('foo', o.name)
+    assertEquals(conversions + 2, TestFluentDataObjectConverter.conversions.get())
+  }
+
+  @Test
+  void testCustomJsonNaming() {
+    // The JSON constructor expects max_size, the maxSize key is ignored as it would be at runtime
+    String script = """
+      import io.vertx.lang.groovy.support.TestSnakeCaseDataObject
+      [maxSize: 3] as TestSnakeCaseDataObject
+    """
+    TestSnakeCaseDataObject o = eval(script)
+    assertEquals(0, o.maxSize)
+    assertEquals(0, ((TestSnakeCaseDataObject) eval(script, false)).maxSize)
+    o = eval("""
+      import io.vertx.lang.groovy.support.TestSnakeCaseDataObject
+      [max_size: 3] as TestSnakeCaseDataObject
+    """)
+    assertEquals(3, o.maxSize)
+  }
+
+  @Test
+  void testVertxOptions() {
+    // The JSON constructors of the Vert.x options initialize more than the converter, they are converted at runtime
+    HttpServerOptions server = eval("""
+      import io.vertx.core.http.HttpServerOptions
+      [port: 8080, host: 'localhost', compressionSupported: true] as HttpServerOptions
+    """)
+    assertEquals(8080, server.port)
+    assertEquals('localhost', server.host)
+    assertTrue(server.compressionSupported)
+    DeploymentOptions deployment = eval("""
+      import io.vertx.core.DeploymentOptions
+      [instances: 2, threadingModel: 'WORKER', config: [foo: 'bar']] as DeploymentOptions
+    """)
+    assertEquals(2, deployment.instances)
+    assertEquals(ThreadingModel.WORKER, deployment.threadingModel)
+    assertEquals('bar', deployment.config.getString('foo'))
+  }
+}
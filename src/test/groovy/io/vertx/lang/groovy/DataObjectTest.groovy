@@ -23,6 +23,20 @@ class DataObjectTest {
     assertEquals("bar", json.getString("foo"))
   }
 
+  @Test
+  void testMapAsDataObjectRepeatedly() {
+    (0..<10).each { i ->
+      def dataObject = ["index": i] as TestDataObject
+      assertEquals(i, dataObject.json.getInteger("index"))
+      // The missing constructor is cached as well
+      try {
+        ["index": i] as TestDataObjectWithNoJsonObjectConstructor
+        fail()
+      } catch (GroovyCastException ignore) {
+      }
+    }
+  }
+
   @Test
   void testMapAsDataObjectWithNoJsonObjectConstructor() {
     def map = ["foo": "bar"]
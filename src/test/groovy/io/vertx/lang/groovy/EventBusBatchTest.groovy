@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy
+
+import io.vertx.core.json.JsonArray
+import io.vertx.test.core.VertxTestBase
+import io.vertx.test.fakestream.FakeStream
+import org.junit.Test
+
+class EventBusBatchTest extends VertxTestBase {
+
+  @Test
+  void testSendBatch() {
+    waitFor(2)
+    def eventBus = vertx.eventBus()
+    def received = []
+    eventBus.consumer("the_address").handler { message ->
+      def body = message.body()
+      assertTrue(body instanceof JsonArray)
+      received.addAll(body.list)
+      if (received.size() == 10) {
+        assertEquals((0..<10).toList(), received)
+        complete()
+      }
+    }
+    eventBus.sendBatch("the_address", (0..<10).toList(), 3).onComplete(onSuccess { v ->
+      complete()
+    })
+    await()
+  }
+
+  @Test
+  void testSendBatchFromStream() {
+    waitFor(2)
+    def eventBus = vertx.eventBus()
+    def batches = []
+    eventBus.consumer("the_address").handler { message ->
+      batches << message.body().list
+      if (batches.size() == 3) {
+        assertEquals([[1, 2], [3, 4], [5]], batches)
+        complete()
+      }
+    }
+    def stream = new FakeStream<Integer>()
+    eventBus.sendBatch("the_address", stream, 2).onComplete(onSuccess { v ->
+      complete()
+    })
+    (1..5).each { stream.write(it) }
+    stream.end()
+    await()
+  }
+
+  @Test
+  void testBatchingConsumer() {
+    def eventBus = vertx.eventBus()
+    def batches = []
+    vertx.runOnContext { v ->
+      eventBus.consumer("the_address", 3, 50) { List batch ->
+        batches << batch.collect { it.body() }
+        if (batches.size() == 2) {
+          assertEquals([[0, 1, 2], [3]], batches)
+          testComplete()
+        }
+      }.completion().onComplete(onSuccess { v2 ->
+        (0..<4).each { eventBus.send("the_address", it) }
+      })
+    }
+    await()
+  }
+
+  @Test
+  void testBatchingConsumerInvalidMaxDelay() {
+    vertx.runOnContext { v ->
+      try {
+        vertx.eventBus().consumer("the_address", 3, 0) { List batch -> }
+        fail()
+      } catch (IllegalArgumentException ignore) {
+      }
+      testComplete()
+    }
+    await()
+  }
+
+  @Test
+  void testBatchingConsumerUnregisteredWithPendingBatch() {
+    def eventBus = vertx.eventBus()
+    vertx.runOnContext { v ->
+      def consumer = eventBus.consumer("the_address", 3, 50) { List batch ->
+        fail()
+      }
+      consumer.completion().onComplete(onSuccess { v2 ->
+        eventBus.send("the_address", 0)
+        vertx.setTimer(10) { id ->
+          consumer.unregister().onComplete(onSuccess { v3 ->
+            // Past the max delay of the pending batch
+            vertx.setTimer(100) { id2 ->
+              testComplete()
+            }
+          })
+        }
+      })
+    }
+    await()
+  }
+}
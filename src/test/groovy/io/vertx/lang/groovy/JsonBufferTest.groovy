@@ -0,0 +1,99 @@
+package io.vertx.lang.groovy
+
+import io.vertx.core.DeploymentOptions
+import io.vertx.core.json.JsonArray
+import io.vertx.core.json.JsonObject
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class JsonBufferTest {
+
+  @Test
+  void testObject() {
+    def buffer = Json.buffer {
+      id 1
+      name "vert.x"
+      ratio 0.5d
+      enabled true
+      missing null
+      tags("a", "b")
+      list(["c", "d"])
+      empty()
+      author {
+        name "Julien"
+        roles(["admin": true])
+      }
+    }
+    def expected = new JsonObject()
+      .put("id", 1)
+      .put("name", "vert.x")
+      .put("ratio", 0.5d)
+      .put("enabled", true)
+      .putNull("missing")
+      .put("tags", new JsonArray().add("a").add("b"))
+      .put("list", new JsonArray().add("c").add("d"))
+      .put("empty", new JsonObject())
+      .put("author", new JsonObject().put("name", "Julien").put("roles", new JsonObject().put("admin", true)))
+    assertEquals(expected, new JsonObject(buffer))
+  }
+
+  @Test
+  void testIterableWithClosure() {
+    def users = [[id: 1, name: "a"], [id: 2, name: "b"]]
+    def buffer = Json.buffer {
+      count users.size()
+      items(users) { user ->
+        id user.id
+      }
+    }
+    assertEquals(new JsonObject()
+      .put("count", 2)
+      .put("items", new JsonArray().add(new JsonObject().put("id", 1)).add(new JsonObject().put("id", 2))),
+      new JsonObject(buffer))
+    assertEquals(new JsonArray().add(new JsonObject().put("name", "a")).add(new JsonObject().put("name", "b")),
+      new JsonArray(Json.buffer(users) { user -> name user.name }))
+  }
+
+  @Test
+  void testValues() {
+    def name = "vert.x"
+    def options = new DeploymentOptions().setInstances(3)
+    def buffer = Json.buffer([
+      "gstring": "${name}",
+      "json": new JsonObject().put("foo", [1, 2]),
+      "array": new JsonArray().add(new JsonObject().put("bar", true)),
+      "bytes": "hello".bytes,
+      "options": options
+    ])
+    def json = new JsonObject(buffer)
+    assertEquals("vert.x", json.getString("gstring"))
+    assertEquals(new JsonObject().put("foo", new JsonArray().add(1).add(2)), json.getJsonObject("json"))
+    assertEquals(new JsonArray().add(new JsonObject().put("bar", true)), json.getJsonArray("array"))
+    assertArrayEquals("hello".bytes, json.getBinary("bytes"))
+    assertEquals(options.toJson(), json.getJsonObject("options"))
+    assertEquals(new JsonObject().put("foo", "bar").encode(), Json.buffer(["foo": "bar"]).toString())
+  }
+
+  @Test
+  void testFieldsNamedLikeFactories() {
+    def buffer = Json.buffer {
+      value 1
+      object {
+        array([1, 2])
+      }
+      array("a", "b")
+    }
+    assertEquals(new JsonObject()
+      .put("value", 1)
+      .put("object", new JsonObject().put("array", new JsonArray().add(1).add(2)))
+      .put("array", new JsonArray().add("a").add("b")),
+      new JsonObject(buffer))
+  }
+
+  @Test
+  void testNumbersEncodedLikeJsonEncode() {
+    def values = ["float": 1.1f, "double": 1.1d, "long": 3L, "decimal": 1.5G]
+    assertEquals(new JsonObject(values).encode(), Json.buffer(values).toString())
+  }
+}
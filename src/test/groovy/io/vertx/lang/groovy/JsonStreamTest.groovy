@@ -0,0 +1,88 @@
+package io.vertx.lang.groovy
+
+import io.vertx.core.buffer.Buffer
+import io.vertx.core.json.JsonArray
+import io.vertx.core.json.JsonObject
+import io.vertx.test.fakestream.FakeStream
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class JsonStreamTest {
+
+  static final String DOCUMENT = '''{
+  "meta": {"count": 3, "tags": ["a", "b"]},
+  "items": [{"id": 1}, {"id": 2, "sub": [1, 2]}, [3], "four", null],
+  "after": {"ignored": true}
+}'''
+
+  @Test
+  void testEachElementAtRoot() {
+    def elements = []
+    Buffer.buffer('[1, {"foo": "bar"}, [true]]').eachElement { elements << it }
+    assertEquals([1, new JsonObject().put("foo", "bar"), new JsonArray().add(true)], elements)
+  }
+
+  @Test
+  void testEachElementAtPointer() {
+    def elements = []
+    Buffer.buffer(DOCUMENT).eachElement("/items") { elements << it }
+    assertEquals(5, elements.size())
+    assertEquals(new JsonObject().put("id", 1), elements[0])
+    assertEquals(new JsonArray().add(1).add(2), elements[1].getJsonArray("sub"))
+    assertEquals(new JsonArray().add(3), elements[2])
+    assertEquals("four", elements[3])
+    assertNull(elements[4])
+    def tags = []
+    Buffer.buffer(DOCUMENT).eachElement("/meta/tags") { tags << it }
+    assertEquals(["a", "b"], tags)
+    def sub = []
+    Buffer.buffer(DOCUMENT).eachElement("/items/1/sub") { sub << it }
+    assertEquals([1, 2], sub)
+  }
+
+  @Test
+  void testEachEntry() {
+    def entries = [:]
+    Buffer.buffer(DOCUMENT).eachEntry("/meta") { key, value -> entries[key] = value }
+    assertEquals(["count": 3, "tags": new JsonArray().add("a").add("b")], entries)
+    def keys = []
+    Buffer.buffer(DOCUMENT).eachEntry { Map.Entry entry -> keys << entry.key }
+    assertEquals(["meta", "items", "after"], keys)
+  }
+
+  @Test
+  void testMissingOrMismatchingContainer() {
+    ["/missing", "/meta", "/items/3"].each { pointer ->
+      try {
+        Buffer.buffer(DOCUMENT).eachElement(pointer) { fail() }
+        fail()
+      } catch (IllegalStateException ignore) {
+      }
+    }
+  }
+
+  @Test
+  void testEachElementOfStream() {
+    def stream = new FakeStream<Buffer>()
+    def elements = []
+    def fut = stream.eachElement("/items") { elements << it }
+    DOCUMENT.toList().collate(7).each { chunk ->
+      stream.write(Buffer.buffer(chunk.join()))
+    }
+    stream.end()
+    assertTrue(fut.succeeded())
+    assertEquals(5, elements.size())
+    assertEquals(2, elements[1].getInteger("id"))
+  }
+
+  @Test
+  void testStreamClosureFailure() {
+    def stream = new FakeStream<Buffer>()
+    def failure = new RuntimeException()
+    def fut = stream.eachElement { throw failure }
+    stream.write(Buffer.buffer('[1, 2]'))
+    stream.end()
+    assertSame(failure, fut.cause())
+  }
+}
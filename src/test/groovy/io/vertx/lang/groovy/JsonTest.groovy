@@ -20,6 +20,78 @@ class JsonTest {
     assertEquals("bar", json.getString("foo"))
   }
 
+  @Test
+  void testMapToJsonObject() {
+    def nested = ["bar": "juu"]
+    def list = [1, ["daa": true]]
+    def map = ["foo": nested, "list": list]
+    def json = map.toJsonObject()
+    // The structure is wrapped, neither copied nor modified
+    assertSame(map, json.getMap())
+    assertSame(nested, map.get("foo"))
+    assertSame(list, map.get("list"))
+    assertFalse(list[1] instanceof JsonObject)
+    assertEquals("juu", json.getJsonObject("foo").getString("bar"))
+    assertTrue(json.getJsonArray("list").getJsonObject(1).getBoolean("daa"))
+    json.getJsonObject("foo").put("bar", "changed")
+    assertEquals("changed", nested.bar)
+    assertSame(map, (map as JsonObject).getMap())
+  }
+
+  @Test
+  void testListToJsonArray() {
+    def list = [["foo": [1, 2]], "bar"]
+    def json = list.toJsonArray()
+    assertFalse(list[0] instanceof JsonObject)
+    assertSame(list, json.getList())
+    assertEquals(2, json.getJsonObject(0).getJsonArray("foo").getInteger(1))
+  }
+
+  @Test
+  void testCycleIsRejected() {
+    def map = [:]
+    map.self = [map]
+    try {
+      map.toJsonObject(true)
+      fail()
+    } catch (IllegalStateException ignore) {
+    }
+    def list = []
+    list << ["nested": list]
+    try {
+      list.toJsonArray(true)
+      fail()
+    } catch (IllegalStateException ignore) {
+    }
+    // The same container referenced twice is not a cycle
+    def shared = ["a": 1]
+    assertEquals(new JsonObject().put("x", new JsonObject().put("a", 1)).put("y", new JsonObject().put("a", 1)),
+      ["x": shared, "y": shared].toJsonObject(true))
+  }
+
+  @Test
+  void testStrictConversion() {
+    def name = "vert.x"
+    def json = ["list": ["${name}"]].toJsonObject(true)
+    assertEquals("vert.x", json.getJsonArray("list").getString(0))
+    assertEquals('{"list":["vert.x"]}', json.encode())
+    try {
+      ["foo": ["bar": new Object()]].toJsonObject(true)
+      fail()
+    } catch (IllegalStateException ignore) {
+    }
+    try {
+      [new Object()].toJsonArray(true)
+      fail()
+    } catch (IllegalStateException ignore) {
+    }
+    try {
+      [(1): "one"].toJsonObject(true)
+      fail()
+    } catch (IllegalStateException ignore) {
+    }
+  }
+
   @Test
   void testJsonObjectGet() {
     def json = new JsonObject().put("foo", "bar")
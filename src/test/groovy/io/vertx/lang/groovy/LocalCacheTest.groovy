@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy
+
+import io.vertx.core.DeploymentOptions
+import io.vertx.core.Vertx
+import io.vertx.core.VertxOptions
+import org.junit.Test
+
+import java.util.concurrent.TimeUnit
+
+import static org.junit.Assert.*
+
+class LocalCacheTest {
+
+  @Test
+  void testLeastRecentlyUsedEviction() {
+    def cache = new LocalCache<String, Integer>(2, 0)
+    cache['a'] = 1
+    cache['b'] = 2
+    assertEquals(1, cache['a'])
+    cache['c'] = 3
+    assertNull(cache['b'])
+    assertEquals(1, cache['a'])
+    assertEquals(3, cache['c'])
+    assertEquals(2, cache.size())
+  }
+
+  @Test
+  void testTimeToLive() {
+    def cache = new LocalCache<String, Integer>(10, TimeUnit.MILLISECONDS.toNanos(20))
+    cache['a'] = 1
+    assertEquals(1, cache['a'])
+    Thread.sleep(40)
+    assertNull(cache['a'])
+    cache['b'] = 2
+    Thread.sleep(40)
+    assertEquals(0, cache.size())
+  }
+
+  @Test
+  void testComputeIfAbsent() {
+    def cache = new LocalCache<String, Integer>(10, 0)
+    assertEquals(3, cache.computeIfAbsent('abc') { it.length() })
+    assertEquals(3, cache.computeIfAbsent('abc') { throw new AssertionError() })
+    assertNull(cache.computeIfAbsent('def') { null })
+    assertEquals(1, cache.size())
+  }
+
+  @Test
+  void testSharedByDeploymentInstancesOnEventLoop() {
+    System.properties.remove('cachedValues')
+    def vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(1))
+    try {
+      def future = vertx.deployVerticle('io/vertx/lang/groovy/CachesVerticleScript.groovy', new DeploymentOptions().setInstances(3))
+      future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS)
+      assertEquals(1, System.properties.get('cachedValues').size())
+    } finally {
+      vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS)
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy
+
+import io.vertx.core.Promise
+import io.vertx.core.Verticle
+import io.vertx.core.Vertx
+import io.vertx.lang.groovy.transform.ScriptBudgetCustomizer
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+import static org.junit.Assert.*
+
+class SandboxTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder()
+
+  static Object eval(String script, ScriptBudgetCustomizer customizer = new ScriptBudgetCustomizer(100_000, 60_000, 0, 0)) {
+    def config = new CompilerConfiguration()
+    config.addCompilationCustomizers(customizer)
+    new GroovyShell(SandboxTest.classLoader, config).evaluate(script)
+  }
+
+  // 1024 iterations, i.e the interval between two samples, take longer than 10 ms
+  static final String SLOW_LOOP = "int[] values = new int[500_000]\nwhile (true) { java.util.Arrays.hashCode(values) }"
+
+  @Test
+  void testWithinBudget() {
+    assertEquals(500500, eval("(1..1000).sum { it }"))
+  }
+
+  @Test
+  void testLoopBudget() {
+    try {
+      eval("def i = 0\nwhile (true) { try { i++ } catch (e) { } }")
+      fail()
+    } catch (ScriptBudgetExceededError ignore) {
+    }
+  }
+
+  @Test
+  void testClosureBudget() {
+    try {
+      eval("(1..10_000_000).each { }")
+      fail()
+    } catch (ScriptBudgetExceededError ignore) {
+    }
+  }
+
+  @Test
+  void testSlowIterationsCpuBudget() {
+    try {
+      eval(SLOW_LOOP, new ScriptBudgetCustomizer(0, 60_000, 200, 0))
+      fail()
+    } catch (ScriptBudgetExceededError ignore) {
+    }
+  }
+
+  @Test
+  void testSlowIterationsCpuBudgetOnVertxThread() {
+    def vertx = Vertx.vertx()
+    try {
+      def fut = vertx.executeBlocking({ eval(SLOW_LOOP, new ScriptBudgetCustomizer(0, 60_000, 200, 0)) } as Callable)
+      try {
+        fut.toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS)
+        fail()
+      } catch (ExecutionException e) {
+        assertTrue(e.cause instanceof ScriptBudgetExceededError)
+      }
+    } finally {
+      vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS)
+    }
+  }
+
+  @Test
+  void testUndeployExceededDeployment() {
+    def dir = folder.newFolder()
+    new File(dir, 'compilerConfiguration.groovy').text = '''
+      sandbox {
+        maxIterations = 100_000
+        allowedReceivers = ['java.lang.Object', 'java.lang.Boolean']
+      }
+    '''
+    new File(dir, 'Runaway.groovy').text = 'vertx.setTimer(1) { while (true) { } }'
+    new File(dir, 'Forbidden.groovy').text = 'System.exit(0)'
+    def loader = new URLClassLoader([dir.toURI().toURL()] as URL[], SandboxTest.classLoader)
+    def vertx = Vertx.vertx()
+    try {
+      def factory = new GroovyVerticleFactory()
+      factory.init(vertx)
+      Promise<Callable<Verticle>> promise = Promise.promise()
+      factory.createVerticle('groovy:Forbidden.groovy', loader, promise)
+      try {
+        promise.future().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS)
+        fail()
+      } catch (ExecutionException e) {
+        assertTrue(e.cause instanceof MultipleCompilationErrorsException)
+      }
+      promise = Promise.promise()
+      factory.createVerticle('groovy:Runaway.groovy', loader, promise)
+      def verticle = promise.future().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).call()
+      vertx.deployVerticle(verticle).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS)
+      long deadline = System.currentTimeMillis() + 10_000
+      while (!vertx.deploymentIDs().isEmpty()) {
+        assertTrue(System.currentTimeMillis() < deadline)
+        Thread.sleep(10)
+      }
+    } finally {
+      vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS)
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package io.vertx.lang.groovy
+
+import groovy.transform.CompileStatic
+import io.vertx.core.json.JsonArray
+import io.vertx.core.json.JsonObject
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+@CompileStatic
+class StaticJsonTest {
+
+  @Test
+  void testSubscriptOperators() {
+    def json = new JsonObject()
+    json["foo"] = "bar"
+    assertEquals("bar", json["foo"])
+    assertEquals("bar", json.putAt("foo", "juu"))
+    json["map"] = [a: 1]
+    assertEquals(new JsonObject().put("a", 1), json.putAt("map", null))
+    def array = new JsonArray()
+    array << 1
+    array << "two"
+    assertEquals("two", array[-1])
+  }
+
+  @Test
+  void testTypedAccessors() {
+    def json = new JsonObject().put("int", 4).put("long", 5L).put("double", 1.5d).put("bool", true).put("str", "s")
+    int i = json.intAt("int")
+    long l = json.longAt("long")
+    double d = json.doubleAt("double")
+    assertEquals(4, i)
+    assertEquals(5L, l)
+    assertEquals(1.5d, d, 0d)
+    assertTrue(json.booleanAt("bool"))
+    assertEquals("s", json.stringAt("str"))
+    assertEquals(0, json.intAt("absent"))
+    assertEquals(3, json.intAt("absent", 3))
+    assertFalse(json.booleanAt("absent"))
+    assertEquals(4L, json.longAt("int"))
+    def array = new JsonArray().add(1).add(2.5d).addNull()
+    assertEquals(1, array.intAt(0))
+    assertEquals(2L, array.longAt(1))
+    assertEquals(2.5d, array.doubleAt(1), 0d)
+    assertEquals(0, array.intAt(2))
+  }
+
+  @Test
+  void testTypedArrayAccessorsIndexes() {
+    def array = new JsonArray().add(1).add(2L).add(3.5d)
+    assertEquals(1, array.intAt(-3))
+    assertEquals(2L, array.longAt(-2))
+    assertEquals(3.5d, array.doubleAt(-1), 0d)
+    assertEquals(0, array.intAt(3))
+    assertEquals(0L, array.longAt(10))
+    assertEquals(0d, array.doubleAt(3), 0d)
+    try {
+      array.intAt(-4)
+      fail()
+    } catch (ArrayIndexOutOfBoundsException ignore) {
+    }
+  }
+
+  @Test
+  void testPrimitiveArrays() {
+    def json = new JsonArray()
+    json << ([1, 2] as int[])
+    json << ([3L] as long[])
+    json << ([4.5d] as double[])
+    assertEquals(new JsonArray().add(1).add(2).add(3L).add(4.5d), json)
+    assertArrayEquals([1, 2, 3, 4] as int[], json.toIntArray())
+    assertArrayEquals([1L, 2L, 3L, 4L] as long[], json.toLongArray())
+    assertArrayEquals([1d, 2d, 3d, 4.5d] as double[], json.toDoubleArray(), 0d)
+    assertArrayEquals([2d, 4d, 6d, 9d] as double[], json.collectDouble(x -> x * 2), 0d)
+  }
+
+  @Test
+  void testNumericAggregates() {
+    def json = new JsonArray().add(3).add(-1.5d).add(10L)
+    assertEquals(11.5d, json.doubleSum(), 0d)
+    assertEquals(11L, json.longSum())
+    assertEquals(-1.5d, json.doubleMin(), 0d)
+    assertEquals(10d, json.doubleMax(), 0d)
+    assertEquals(0d, new JsonArray().doubleSum(), 0d)
+    try {
+      new JsonArray().doubleMin()
+      fail()
+    } catch (NoSuchElementException ignore) {
+    }
+  }
+}
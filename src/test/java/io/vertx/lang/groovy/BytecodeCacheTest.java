@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy;
+
+import groovy.lang.Script;
+import io.vertx.lang.groovy.impl.BytecodeCache;
+import io.vertx.lang.groovy.impl.CompiledScript;
+import io.vertx.lang.groovy.impl.ScriptClassLoader;
+import io.vertx.lang.groovy.impl.ScriptDigest;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class BytecodeCacheTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File sources;
+  private URLClassLoader parent;
+
+  @Before
+  public void setUp() throws Exception {
+    sources = folder.newFolder("sources");
+    write("Helper.groovy", "class Helper { static String value() { 'v1' } }");
+    write("Main.groovy", "[1, 2].collect { it * 2 }.join(',') + ':' + Helper.value()");
+    parent = new URLClassLoader(new URL[]{sources.toURI().toURL()}, getClass().getClassLoader());
+  }
+
+  private void write(String name, String content) throws Exception {
+    Files.write(new File(sources, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private CompiledScript compileAndStore(BytecodeCache cache, URL url) throws Exception {
+    ScriptClassLoader loader = new ScriptClassLoader(parent, new CompilerConfiguration());
+    CompiledScript script = loader.compile(url);
+    cache.store("Main.groovy", ScriptDigest.sha256(url), "default", script);
+    return script;
+  }
+
+  private Object run(CompiledScript script) throws Exception {
+    return ((Script) script.mainClass().getDeclaredConstructor().newInstance()).run();
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    BytecodeCache cache = new BytecodeCache(folder.newFolder("cache").toPath());
+    URL url = new File(sources, "Main.groovy").toURI().toURL();
+    CompiledScript compiled = compileAndStore(cache, url);
+    assertTrue(compiled.bytecode().size() >= 3);
+    assertEquals(2, compiled.sources().size());
+    CompiledScript loaded = cache.load("Main.groovy", ScriptDigest.sha256(url), "default", parent);
+    assertNotNull(loaded);
+    assertNotSame(compiled.mainClass(), loaded.mainClass());
+    assertEquals(compiled.mainClass().getName(), loaded.mainClass().getName());
+    assertEquals("2,4:v1", run(loaded));
+  }
+
+  @Test
+  public void testMiss() throws Exception {
+    BytecodeCache cache = new BytecodeCache(folder.newFolder("cache").toPath());
+    URL url = new File(sources, "Main.groovy").toURI().toURL();
+    compileAndStore(cache, url);
+    assertNull(cache.load("Main.groovy", ScriptDigest.sha256(url), "other-configuration", parent));
+    assertNull(cache.load("Other.groovy", ScriptDigest.sha256(url), "default", parent));
+  }
+
+  @Test
+  public void testChangedDependencyInvalidatesEntry() throws Exception {
+    BytecodeCache cache = new BytecodeCache(folder.newFolder("cache").toPath());
+    URL url = new File(sources, "Main.groovy").toURI().toURL();
+    compileAndStore(cache, url);
+    write("Helper.groovy", "class Helper { static String value() { 'v2' } }");
+    assertNull(cache.load("Main.groovy", ScriptDigest.sha256(url), "default", parent));
+    // The stale entry is replaced
+    compileAndStore(cache, url);
+    CompiledScript loaded = cache.load("Main.groovy", ScriptDigest.sha256(url), "default", parent);
+    assertNotNull(loaded);
+    assertEquals("2,4:v2", run(loaded));
+  }
+
+  @Test
+  public void testStoreScriptReusingSharedHelper() throws Exception {
+    write("Other.groovy", "Helper.value() + '!'");
+    URL main = new File(sources, "Main.groovy").toURI().toURL();
+    URL other = new File(sources, "Other.groovy").toURI().toURL();
+    Path dir = folder.newFolder("cache").toPath();
+    ScriptClassLoader loader = new ScriptClassLoader(parent, new CompilerConfiguration(), true);
+    loader.compile(main);
+    CompiledScript compiled = loader.compile(other);
+    assertTrue(compiled.bytecode().containsKey("Helper"));
+    new BytecodeCache(dir).store("Other.groovy", ScriptDigest.sha256(other), "default", compiled);
+    // A new process, with a new deployment class loader
+    URLClassLoader restarted = new URLClassLoader(new URL[]{sources.toURI().toURL()}, getClass().getClassLoader());
+    CompiledScript loaded = new BytecodeCache(dir).load("Other.groovy", ScriptDigest.sha256(other), "default", restarted);
+    assertNotNull(loaded);
+    assertEquals("v1!", run(loaded));
+  }
+
+  @Test
+  public void testScriptReusingHelperWithoutRetainedBytecodeIsNotStored() throws Exception {
+    write("Other.groovy", "Helper.value() + '!'");
+    URL main = new File(sources, "Main.groovy").toURI().toURL();
+    URL other = new File(sources, "Other.groovy").toURI().toURL();
+    Path dir = folder.newFolder("cache").toPath();
+    ScriptClassLoader loader = new ScriptClassLoader(parent, new CompilerConfiguration());
+    loader.compile(main);
+    CompiledScript compiled = loader.compile(other);
+    assertNull(compiled.bytecode());
+    new BytecodeCache(dir).store("Other.groovy", ScriptDigest.sha256(other), "default", compiled);
+    assertNull(new BytecodeCache(dir).load("Other.groovy", ScriptDigest.sha256(other), "default", parent));
+  }
+}
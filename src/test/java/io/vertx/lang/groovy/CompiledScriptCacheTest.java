@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy;
+
+import io.vertx.core.Vertx;
+import io.vertx.lang.groovy.impl.CompiledScript;
+import io.vertx.lang.groovy.impl.CompiledScriptCache;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CompiledScriptCacheTest {
+
+  public static final List<Class<?>> classes = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void testRedeployReusesCompiledClass() throws Exception {
+    classes.clear();
+    Vertx vertx = Vertx.vertx();
+    try {
+      for (int i = 0;i < 2;i++) {
+        String id = vertx.deployVerticle("io/vertx/lang/groovy/CachedVerticleScript.groovy")
+          .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        vertx.undeploy(id).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      vertx.close();
+    }
+    assertEquals(2, classes.size());
+    assertSame(classes.get(0), classes.get(1));
+  }
+
+  private static CompiledScript script(Class<?> clazz) {
+    return new CompiledScript(clazz, Collections.emptySet(), null);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() {
+    CompiledScriptCache cache = new CompiledScriptCache(2);
+    ClassLoader loader = getClass().getClassLoader();
+    CompiledScriptCache.Key k1 = new CompiledScriptCache.Key(loader, "file:/a.groovy", "d1", "default");
+    CompiledScriptCache.Key k2 = new CompiledScriptCache.Key(loader, "file:/b.groovy", "d2", "default");
+    CompiledScriptCache.Key k3 = new CompiledScriptCache.Key(loader, "file:/c.groovy", "d3", "default");
+    cache.put(k1, script(String.class));
+    cache.put(k2, script(Integer.class));
+    assertSame(String.class, cache.get(k1).mainClass());
+    cache.put(k3, script(Long.class));
+    assertEquals(2, cache.size());
+    assertSame(String.class, cache.get(k1).mainClass());
+    assertNull(cache.get(k2));
+    assertSame(Long.class, cache.get(k3).mainClass());
+  }
+
+  @Test
+  public void testKeyDependsOnContentAndConfiguration() {
+    CompiledScriptCache cache = new CompiledScriptCache(4);
+    ClassLoader loader = getClass().getClassLoader();
+    cache.put(new CompiledScriptCache.Key(loader, "file:/a.groovy", "d1", "default"), script(String.class));
+    assertNull(cache.get(new CompiledScriptCache.Key(loader, "file:/a.groovy", "d2", "default")));
+    assertNull(cache.get(new CompiledScriptCache.Key(loader, "file:/a.groovy", "d1", "file:/cfg.groovy#abc")));
+    assertNull(cache.get(new CompiledScriptCache.Key(new ClassLoader(loader) {}, "file:/a.groovy", "d1", "default")));
+    assertSame(String.class, cache.get(new CompiledScriptCache.Key(loader, "file:/a.groovy", "d1", "default")).mainClass());
+  }
+
+  @Test
+  public void testDisabled() {
+    CompiledScriptCache cache = new CompiledScriptCache(0);
+    assertFalse(cache.isEnabled());
+    CompiledScriptCache.Key key = new CompiledScriptCache.Key(getClass().getClassLoader(), "file:/a.groovy", "d1", "default");
+    cache.put(key, script(String.class));
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testDoesNotRetainClassLoader() throws Exception {
+    CompiledScriptCache cache = new CompiledScriptCache(4);
+    ClassLoader loader = new ClassLoader(getClass().getClassLoader()) {};
+    WeakReference<ClassLoader> ref = new WeakReference<>(loader);
+    cache.put(new CompiledScriptCache.Key(loader, "file:/a.groovy", "d1", "default"), script(String.class));
+    assertEquals(1, cache.size());
+    loader = null;
+    // Cleared references are enqueued asynchronously
+    for (int i = 0;i < 50 && cache.size() > 0;i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(ref.get());
+    assertEquals(0, cache.size());
+  }
+}
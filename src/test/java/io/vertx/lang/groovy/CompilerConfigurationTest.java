@@ -18,11 +18,18 @@ package io.vertx.lang.groovy;
 
 import io.vertx.core.Vertx;
 import io.vertx.lang.groovy.basescripts.FooScript;
+import io.vertx.lang.groovy.impl.CompilerConfigurationResolver;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.customizers.ImportCustomizer;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.AbstractMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -37,6 +44,9 @@ public class CompilerConfigurationTest {
 
   public static CompilerConfiguration config;
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void testDefaultPropertiesGroovy() throws Exception {
     deployVerticle("groovy:io/vertx/lang/groovy/CompilerConfigVerticleScript.groovy",
@@ -90,6 +100,35 @@ public class CompilerConfigurationTest {
     }
   }
 
+  @Test
+  public void testResolvedConfigurationIsMemoized() throws Exception {
+    File dir = folder.newFolder();
+    File file = new File(dir, "compilerConfiguration.groovy");
+    Files.write(file.toPath(), "groovy { script.base = 'groovy.lang.Script' }".getBytes(StandardCharsets.UTF_8));
+    ClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader());
+    CompilerConfigurationResolver resolver = new CompilerConfigurationResolver();
+    CompilerConfigurationResolver.Resolved first = resolver.resolve(loader);
+    assertEquals("groovy.lang.Script", first.configuration().getScriptBaseClass());
+    assertSame(first, resolver.resolve(loader));
+    Files.write(file.toPath(), ("groovy { script.base = '" + FooScript.class.getName() + "' }").getBytes(StandardCharsets.UTF_8));
+    CompilerConfigurationResolver.Resolved second = resolver.resolve(loader);
+    assertNotSame(first, second);
+    assertNotEquals(first.fingerprint(), second.fingerprint());
+    assertEquals(FooScript.class.getName(), second.configuration().getScriptBaseClass());
+  }
+
+  @Test
+  public void testStatefulCustomizerOptsOut() throws Exception {
+    File dir = folder.newFolder();
+    Files.write(new File(dir, "compilerConfiguration.groovy").toPath(),
+      "cacheable = false\ncustomizer = { cfg -> }".getBytes(StandardCharsets.UTF_8));
+    ClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader());
+    CompilerConfigurationResolver resolver = new CompilerConfigurationResolver();
+    CompilerConfigurationResolver.Resolved first = resolver.resolve(loader);
+    assertFalse(first.isCacheable());
+    assertNotSame(first.configuration(), resolver.resolve(loader).configuration());
+  }
+
   public void deployVerticle(String verticleName, Map.Entry<String, String>... aliases) throws Exception {
     Vertx vertx = Vertx.vertx();
     ClassLoader prevLoader = Thread.currentThread().getContextClassLoader();
@@ -22,16 +22,22 @@ import groovy.lang.Script;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Verticle;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import junit.framework.AssertionFailedError;
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Test;
 
 import java.io.File;
 import java.net.URI;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -135,6 +141,15 @@ public class DeploymentTest {
     assertTrue(isStopped());
   }
 
+  @Test
+  public void testDeployVerticleScriptWithPrivateLifecycleMethods() throws Exception {
+    assertDeploy((vertx, onDeploy) ->
+        vertx.deployVerticle(
+            "io/vertx/lang/groovy/PrivateLifeCycleVerticleScript.groovy").onComplete(onDeploy));
+    assertTrue(isStarted());
+    assertTrue(isStopped());
+  }
+
   @Test
   public void testDeployVerticleScriptInstance() throws Exception {
     Class clazz = assertScript("LifeCycleVerticleScript");
@@ -156,6 +171,46 @@ public class DeploymentTest {
     assertTrue(isStopped());
   }
 
+  @Test
+  public void testDeployVerticleScriptSharedInitialization() throws Exception {
+    Vertx vertx = Vertx.vertx();
+    try {
+      BlockingQueue<String> received = new ArrayBlockingQueue<>(8);
+      vertx.eventBus().<String>consumer("shared", msg -> received.add(msg.body()))
+        .completion().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+      Map<String, Set<String>> ids = new HashMap<>();
+      for (int i = 0;i < 2;i++) {
+        vertx.deployVerticle("io/vertx/lang/groovy/SharedVerticleScript.groovy", new DeploymentOptions().setInstances(4))
+          .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+      }
+      for (int i = 0;i < 8;i++) {
+        String[] message = received.poll(10, TimeUnit.SECONDS).split(" ");
+        ids.computeIfAbsent(message[0], id -> new HashSet<>()).add(message[1]);
+      }
+      // One vertxShared call per deployment
+      assertEquals(2, ids.size());
+      Set<String> values = new HashSet<>();
+      for (Set<String> deploymentValues : ids.values()) {
+        assertEquals(1, deploymentValues.size());
+        values.addAll(deploymentValues);
+      }
+      assertEquals(2, values.size());
+    } finally {
+      vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void testDeployVerticleScriptOnVirtualThread() throws Exception {
+    Assume.assumeTrue(Runtime.version().feature() >= 21);
+    assertDeploy((vertx, onDeploy) ->
+        vertx.deployVerticle(
+            "io/vertx/lang/groovy/VirtualThreadVerticleScript.groovy",
+            new DeploymentOptions().setThreadingModel(ThreadingModel.VIRTUAL_THREAD)).onComplete(onDeploy));
+    assertTrue(isStarted());
+    assertTrue(isStopped());
+  }
+
   @Test
   public void testDeployVerticleClassFromRelativeFile() throws Exception {
     String relativePath = getRelativePath("io/vertx/lang/groovy/LifeCycleVerticleClass.groovy");
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.lang.groovy.impl.GroovyCollectionCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GroovyCollectionCodecTest {
+
+  private Vertx vertx;
+
+  @Before
+  public void before() {
+    vertx = Vertx.vertx();
+    GroovyCollectionCodec.register(vertx.eventBus());
+  }
+
+  @After
+  public void after() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  private Object roundTrip(Object body) throws Exception {
+    CompletableFuture<Object> received = new CompletableFuture<>();
+    vertx.eventBus().consumer("the_address", msg -> received.complete(msg.body())).completion()
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    vertx.eventBus().send("the_address", body);
+    return received.get(10, TimeUnit.SECONDS);
+  }
+
+  private static Map<String, Object> map() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("string", "foo");
+    map.put("int", 3);
+    map.put("list", new ArrayList<>(Arrays.asList(1L, 2.5d, null, true)));
+    map.put("nested", new LinkedHashMap<>(Collections.singletonMap("decimal", new BigDecimal("1.5"))));
+    return map;
+  }
+
+  @Test
+  public void testModifiableMapIsCopied() throws Exception {
+    Map<String, Object> map = map();
+    Object received = roundTrip(map);
+    assertEquals(map, received);
+    assertNotSame(map, received);
+    assertNotSame(map.get("list"), ((Map<?, ?>) received).get("list"));
+  }
+
+  @Test
+  public void testImmutableListIsPassedByReference() throws Exception {
+    List<Object> list = List.of("foo", 1, List.of(true));
+    assertSame(list, roundTrip(list));
+  }
+
+  @Test
+  public void testUnmodifiableMapWithModifiableValueIsCopied() throws Exception {
+    Map<String, Object> map = Collections.unmodifiableMap(map());
+    Object received = roundTrip(map);
+    assertEquals(map, received);
+    assertNotSame(map, received);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUnmodifiableViewIsCopied() throws Exception {
+    Map<String, Object> backing = new LinkedHashMap<>();
+    backing.put("string", "foo");
+    Map<String, Object> view = Collections.unmodifiableMap(backing);
+    Map<String, Object> received = (Map<String, Object>) roundTrip(view);
+    assertNotSame(view, received);
+    backing.put("string", "bar");
+    assertEquals("foo", received.get("string"));
+    try {
+      received.put("other", "value");
+      fail();
+    } catch (UnsupportedOperationException ignore) {
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testWireFormat() {
+    Map<String, Object> map = map();
+    map.put("immutable", List.of("a"));
+    map.put("bytes", new byte[]{1, 2});
+    GroovyCollectionCodec codec = new GroovyCollectionCodec("test");
+    Buffer buffer = Buffer.buffer("prefix");
+    codec.encodeToWire(buffer, map);
+    Map<String, Object> decoded = (Map<String, Object>) codec.decodeFromWire(6, buffer);
+    assertArrayEquals(new byte[]{1, 2}, (byte[]) decoded.remove("bytes"));
+    map.remove("bytes");
+    assertEquals(map, decoded);
+    try {
+      ((List<Object>) decoded.get("immutable")).add("b");
+      fail();
+    } catch (UnsupportedOperationException ignore) {
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy;
+
+import groovy.lang.GroovyClassLoader;
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GroovyScriptCompilerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private File sources;
+  private File output;
+
+  @Before
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+    sources = folder.newFolder("sources");
+    output = folder.newFolder("output");
+    write("verticles/Precompiled.groovy", "package verticles\nclass Precompiled extends io.vertx.core.AbstractVerticle {}");
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  private void write(String name, String content) throws Exception {
+    File file = new File(sources, name);
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Verticle createVerticle(String name, ClassLoader loader) throws Exception {
+    GroovyVerticleFactory factory = new GroovyVerticleFactory();
+    factory.init(vertx);
+    Promise<Callable<Verticle>> promise = Promise.promise();
+    factory.createVerticle("groovy:" + name, loader, promise);
+    return promise.future().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).call();
+  }
+
+  @Test
+  public void testLoadPrecompiledClass() throws Exception {
+    assertEquals(Arrays.asList("verticles/Precompiled.groovy"), new GroovyScriptCompiler().compile(sources.toPath(), output.toPath()));
+    assertTrue(new File(output, "verticles/Precompiled.class").exists());
+    ClassLoader loader = new URLClassLoader(new URL[]{output.toURI().toURL(), sources.toURI().toURL()}, getClass().getClassLoader());
+    Verticle verticle = createVerticle("verticles/Precompiled.groovy", loader);
+    assertSame(loader, verticle.getClass().getClassLoader());
+  }
+
+  @Test
+  public void testLoadPrecompiledClassWithoutSource() throws Exception {
+    new GroovyScriptCompiler().compile(sources.toPath(), output.toPath());
+    ClassLoader loader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+    Verticle verticle = createVerticle("verticles/Precompiled.groovy", loader);
+    assertSame(loader, verticle.getClass().getClassLoader());
+  }
+
+  @Test
+  public void testChangedSourceIsCompiled() throws Exception {
+    new GroovyScriptCompiler().compile(sources.toPath(), output.toPath());
+    write("verticles/Precompiled.groovy", "package verticles\nclass Precompiled extends io.vertx.core.AbstractVerticle { }");
+    ClassLoader loader = new URLClassLoader(new URL[]{output.toURI().toURL(), sources.toURI().toURL()}, getClass().getClassLoader());
+    Verticle verticle = createVerticle("verticles/Precompiled.groovy", loader);
+    assertTrue(verticle.getClass().getClassLoader() instanceof GroovyClassLoader.InnerLoader);
+  }
+
+  @Test
+  public void testCompilationErrorsFailTheBuild() throws Exception {
+    write("verticles/Broken.groovy", "class Broken extends {");
+    try {
+      new GroovyScriptCompiler().compile(sources.toPath(), output.toPath());
+      fail();
+    } catch (CompilationFailedException ignore) {
+    }
+  }
+
+  @Test
+  public void testClashingScriptClassesAreReported() throws Exception {
+    write("a/Main.groovy", "println 'a'");
+    write("b/Main.groovy", "println 'b'");
+    try {
+      new GroovyScriptCompiler().compile(sources.toPath(), output.toPath());
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("a/Main.groovy"));
+      assertTrue(e.getMessage().contains("b/Main.groovy"));
+    }
+    assertFalse(new File(output, "Main.class").exists());
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PrecompileTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private File sources;
+  private ClassLoader loader;
+
+  @Before
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+    sources = folder.newFolder();
+    loader = new URLClassLoader(new URL[]{sources.toURI().toURL()}, getClass().getClassLoader());
+    write("Shared.groovy", "class Shared {}");
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  private void write(String name, String content) throws Exception {
+    Files.write(new File(sources, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Verticle createVerticle(GroovyVerticleFactory factory, String name) throws Exception {
+    Promise<Callable<Verticle>> promise = Promise.promise();
+    factory.createVerticle(name, loader, promise);
+    return promise.future().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).call();
+  }
+
+  @Test
+  public void testPrecompile() throws Exception {
+    List<String> names = new ArrayList<>();
+    for (int i = 0;i < 8;i++) {
+      write("Verticle" + i + ".groovy", "class Verticle" + i + " extends io.vertx.core.AbstractVerticle { Shared shared = new Shared() }");
+      names.add("groovy:Verticle" + i + ".groovy");
+    }
+    List<Class<?>> sharedClasses = new ArrayList<>();
+    GroovyVerticleFactory factory = new GroovyVerticleFactory();
+    factory.init(vertx);
+    factory.precompile(loader, names, 4).toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+    for (int i = 0;i < 8;i++) {
+      Verticle verticle = createVerticle(factory, names.get(i));
+      assertEquals("Verticle" + i, verticle.getClass().getName());
+      sharedClasses.add(verticle.getClass().getDeclaredField("shared").getType());
+    }
+    // Compilations are not serialized, each of the 4 concurrent compilations may compile the shared class, the
+    // scripts compiled afterwards reuse one of them
+    assertTrue(sharedClasses.stream().distinct().count() <= 4);
+  }
+
+  @Test
+  public void testPrecompileFailure() throws Exception {
+    write("Broken.groovy", "class Broken extends {");
+    GroovyVerticleFactory factory = new GroovyVerticleFactory();
+    factory.init(vertx);
+    try {
+      factory.precompile(loader, Arrays.asList("Broken.groovy", "Shared.groovy")).toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof org.codehaus.groovy.control.CompilationFailedException);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.*;
+
+public class ReloadTest {
+
+  public static final Map<String, String> values = new ConcurrentHashMap<>();
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private File sources;
+  private ClassLoader loader;
+
+  @Before
+  public void setUp() throws Exception {
+    System.setProperty("vertx.groovy.reloadInterval", "50");
+    try {
+      vertx = Vertx.vertx();
+    } finally {
+      System.clearProperty("vertx.groovy.reloadInterval");
+    }
+    values.clear();
+    sources = folder.newFolder();
+    loader = new URLClassLoader(new URL[]{sources.toURI().toURL()}, getClass().getClassLoader());
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  private void write(String name, String content) throws Exception {
+    File file = new File(sources, name);
+    long previous = file.lastModified();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    if (previous != 0L) {
+      // Make sure the change is visible with coarse grained file timestamps
+      assertTrue(file.setLastModified(previous + 2000));
+    }
+  }
+
+  private String deploy(String name) throws Exception {
+    return vertx.deployVerticle(name, new DeploymentOptions().setClassLoader(loader))
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testReloadChangedScript() throws Exception {
+    write("Reloaded.groovy", "io.vertx.lang.groovy.ReloadTest.values.put('script', 'v1')");
+    deploy("Reloaded.groovy");
+    assertEquals("v1", values.get("script"));
+    write("Reloaded.groovy", "io.vertx.lang.groovy.ReloadTest.values.put('script', 'v2')");
+    await().atMost(10, TimeUnit.SECONDS).until(() -> values.get("script"), equalTo("v2"));
+    assertEquals(1, vertx.deploymentIDs().size());
+  }
+
+  @Test
+  public void testReloadChangedDependency() throws Exception {
+    write("Helper.groovy", "class Helper { static String value() { 'v1' } }");
+    write("Dependent.groovy", "io.vertx.lang.groovy.ReloadTest.values.put('dependent', Helper.value())");
+    write("Independent.groovy", "io.vertx.lang.groovy.ReloadTest.values.merge('independent', '1') { a, b -> a + b }");
+    deploy("Dependent.groovy");
+    deploy("Independent.groovy");
+    assertEquals("v1", values.get("dependent"));
+    write("Helper.groovy", "class Helper { static String value() { 'v2' } }");
+    await().atMost(10, TimeUnit.SECONDS).until(() -> values.get("dependent"), equalTo("v2"));
+    assertEquals("1", values.get("independent"));
+    assertEquals(2, vertx.deploymentIDs().size());
+  }
+
+  @Test
+  public void testFailedReloadIsRetried() throws Exception {
+    write("Broken.groovy", "io.vertx.lang.groovy.ReloadTest.values.put('broken', 'v1')");
+    deploy("Broken.groovy");
+    write("Broken.groovy", "io.vertx.lang.groovy.ReloadTest.values.put('broken', ");
+    await().atMost(10, TimeUnit.SECONDS).until(() -> vertx.deploymentIDs().size(), equalTo(0));
+    write("Broken.groovy", "io.vertx.lang.groovy.ReloadTest.values.put('broken', 'v3')");
+    await().atMost(10, TimeUnit.SECONDS).until(() -> values.get("broken"), equalTo("v3"));
+    assertEquals(1, vertx.deploymentIDs().size());
+  }
+
+  @Test
+  public void testUndeployedScriptIsNotReloaded() throws Exception {
+    write("Undeployed.groovy", "io.vertx.lang.groovy.ReloadTest.values.merge('count', '1') { a, b -> a + b }");
+    String id = deploy("Undeployed.groovy");
+    vertx.undeploy(id).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    write("Undeployed.groovy", "io.vertx.lang.groovy.ReloadTest.values.put('count', 'reloaded')");
+    Thread.sleep(500);
+    assertEquals("1", values.get("count"));
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.vertx.lang.groovy;
+
+import groovy.lang.GroovyClassLoader;
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.lang.groovy.impl.ScriptClassLoader;
+import io.vertx.lang.groovy.impl.ScriptClassLoaders;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ScriptClassLoadersTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSharedPerClassLoaderAndConfiguration() {
+    ScriptClassLoaders loaders = new ScriptClassLoaders(4, loader -> {});
+    ClassLoader parent = getClass().getClassLoader();
+    CompilerConfiguration config = new CompilerConfiguration();
+    ScriptClassLoader loader = loaders.get(parent, "default", config);
+    assertSame(loader, loaders.get(parent, "default", config));
+    assertNotSame(loader, loaders.get(parent, "other", config));
+    assertNotSame(loader, loaders.get(new ClassLoader(parent) {}, "default", config));
+    assertEquals(3, loaders.size());
+  }
+
+  @Test
+  public void testEviction() {
+    List<ScriptClassLoader> evicted = new ArrayList<>();
+    ScriptClassLoaders loaders = new ScriptClassLoaders(2, evicted::add);
+    CompilerConfiguration config = new CompilerConfiguration();
+    for (int i = 0;i < 1000;i++) {
+      loaders.get(new ClassLoader(getClass().getClassLoader()) {}, "default", config);
+    }
+    assertEquals(2, loaders.size());
+    assertEquals(998, evicted.size());
+    loaders.clear();
+    assertEquals(0, loaders.size());
+    assertEquals(1000, evicted.size());
+  }
+
+  @Test
+  public void testEvictedLoaderClosedWhenReleased() throws Exception {
+    File sources = folder.newFolder();
+    Files.write(new File(sources, "Helper.groovy").toPath(), "class Helper {}".getBytes(StandardCharsets.UTF_8));
+    File script = new File(sources, "Script.groovy");
+    Files.write(script.toPath(), "new Helper()".getBytes(StandardCharsets.UTF_8));
+    URL[] path = {sources.toURI().toURL()};
+    List<ScriptClassLoader> evicted = new ArrayList<>();
+    ScriptClassLoaders loaders = new ScriptClassLoaders(2, evicted::add);
+    CompilerConfiguration config = new CompilerConfiguration();
+    ScriptClassLoader used = loaders.get(new URLClassLoader(path, getClass().getClassLoader()), "default", config);
+    ScriptClassLoader unused = loaders.get(new URLClassLoader(path, getClass().getClassLoader()), "default", config);
+    used.compile(script.toURI().toURL());
+    unused.compile(script.toURI().toURL());
+    loaders.acquire(used);
+    loaders.acquire(used);
+    loaders.clear();
+    assertEquals(2, evicted.size());
+    assertEquals(0, unused.getLoadedClasses().length);
+    assertTrue(used.getLoadedClasses().length > 0);
+    loaders.release(used);
+    assertTrue(used.getLoadedClasses().length > 0);
+    loaders.release(used);
+    assertEquals(0, used.getLoadedClasses().length);
+  }
+
+  @Test
+  public void testDependenciesAreShared() throws Exception {
+    File sources = folder.newFolder();
+    Files.write(new File(sources, "Helper.groovy").toPath(), "class Helper {}".getBytes(StandardCharsets.UTF_8));
+    for (String name : new String[]{"First", "Second"}) {
+      Files.write(new File(sources, name + ".groovy").toPath(),
+        ("class " + name + " extends io.vertx.core.AbstractVerticle { Helper helper }").getBytes(StandardCharsets.UTF_8));
+    }
+    ClassLoader loader = new URLClassLoader(new URL[]{sources.toURI().toURL()}, getClass().getClassLoader());
+    Vertx vertx = Vertx.vertx();
+    try {
+      GroovyVerticleFactory factory = new GroovyVerticleFactory();
+      factory.init(vertx);
+      Verticle first = createVerticle(factory, "First.groovy", loader);
+      Verticle second = createVerticle(factory, "Second.groovy", loader);
+      GroovyClassLoader.InnerLoader firstLoader = (GroovyClassLoader.InnerLoader) first.getClass().getClassLoader();
+      GroovyClassLoader.InnerLoader secondLoader = (GroovyClassLoader.InnerLoader) second.getClass().getClassLoader();
+      assertSame(firstLoader.getParent(), secondLoader.getParent());
+      assertSame(first.getClass().getDeclaredField("helper").getType(), second.getClass().getDeclaredField("helper").getType());
+    } finally {
+      vertx.close();
+    }
+  }
+
+  private static Verticle createVerticle(GroovyVerticleFactory factory, String name, ClassLoader loader) throws Exception {
+    Promise<Callable<Verticle>> promise = Promise.promise();
+    factory.createVerticle(name, loader, promise);
+    return promise.future().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).call();
+  }
+}
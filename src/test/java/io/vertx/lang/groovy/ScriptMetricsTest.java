@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ScriptMetricsTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private ClassLoader loader;
+  private final List<String> events = new CopyOnWriteArrayList<>();
+  private final GroovyScriptMetrics metrics = new GroovyScriptMetrics() {
+    @Override
+    public void scriptResolved(String name, boolean classpath, long duration) {
+      events.add("resolved " + name + " " + classpath);
+    }
+    @Override
+    public void classCacheLookup(String name, boolean hit) {
+      events.add("cache " + name + " " + hit);
+    }
+    @Override
+    public void scriptCompiled(String name, int classes, long bytecodeSize, long duration) {
+      assertTrue(bytecodeSize > 0);
+      events.add("compiled " + name + " " + classes);
+    }
+    @Override
+    public void verticleInstantiated(String name, long duration) {
+      events.add("instantiated " + name);
+    }
+    @Override
+    public void verticleStarted(String name, long duration, Throwable failure) {
+      events.add("started " + name + " " + (failure != null ? failure.getMessage() : null));
+    }
+  };
+
+  @Before
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+    File sources = folder.newFolder();
+    Files.write(new File(sources, "Metered.groovy").toPath(), "class Helper {}\ndef vertxStart() {}\n".getBytes(StandardCharsets.UTF_8));
+    Files.write(new File(sources, "Failing.groovy").toPath(), "def vertxStart() { throw new Exception('boom') }\n".getBytes(StandardCharsets.UTF_8));
+    loader = new URLClassLoader(new URL[]{sources.toURI().toURL()}, getClass().getClassLoader());
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  private Verticle createVerticle(GroovyVerticleFactory factory, String name) throws Exception {
+    Promise<Callable<Verticle>> promise = Promise.promise();
+    factory.createVerticle(name, loader, promise);
+    return promise.future().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).call();
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    GroovyVerticleFactory factory = new GroovyVerticleFactory().metrics(metrics);
+    factory.init(vertx);
+    for (int i = 0;i < 2;i++) {
+      Verticle verticle = createVerticle(factory, "groovy:Metered.groovy");
+      vertx.deployVerticle(verticle).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+    assertEquals(List.of(
+      "resolved Metered.groovy true", "cache Metered.groovy false", "compiled Metered.groovy 2",
+      "instantiated Metered.groovy", "started Metered.groovy null",
+      "resolved Metered.groovy true", "cache Metered.groovy true",
+      "instantiated Metered.groovy", "started Metered.groovy null"), events);
+  }
+
+  @Test
+  public void testStartFailure() throws Exception {
+    GroovyVerticleFactory factory = new GroovyVerticleFactory().metrics(metrics);
+    factory.init(vertx);
+    Verticle verticle = createVerticle(factory, "groovy:Failing.groovy");
+    try {
+      vertx.deployVerticle(verticle).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+      fail();
+    } catch (Exception expected) {
+    }
+    assertEquals("started Failing.groovy boom", events.get(events.size() - 1));
+  }
+}
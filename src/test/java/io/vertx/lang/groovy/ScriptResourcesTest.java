@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy;
+
+import io.vertx.lang.groovy.impl.ScriptResources;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ScriptResourcesTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final AtomicInteger lookups = new AtomicInteger();
+
+  private ClassLoader loader(File dir) throws Exception {
+    return new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader()) {
+      @Override
+      public URL getResource(String name) {
+        lookups.incrementAndGet();
+        return super.getResource(name);
+      }
+    };
+  }
+
+  @Test
+  public void testFoundResourceIsMemoized() throws Exception {
+    File dir = folder.newFolder();
+    File script = new File(dir, "Foo.groovy");
+    Files.write(script.toPath(), "println 'foo'".getBytes());
+    ClassLoader loader = loader(dir);
+    ScriptResources resources = new ScriptResources(1000L);
+    ScriptResources.Location location = resources.script(loader, "Foo.groovy");
+    assertEquals(script.toURI().toURL(), location.url());
+    assertTrue(location.isClasspath());
+    assertSame(location, resources.script(loader, "Foo.groovy"));
+    assertEquals(1, lookups.get());
+    assertTrue(script.delete());
+    assertNull(resources.script(loader, "Foo.groovy").url());
+    assertEquals(2, lookups.get());
+  }
+
+  @Test
+  public void testMissingResourceIsMemoized() throws Exception {
+    File dir = folder.newFolder();
+    ClassLoader loader = loader(dir);
+    ScriptResources resources = new ScriptResources(100L);
+    assertNull(resources.resource(loader, "compilerConfiguration.groovy"));
+    assertNull(resources.resource(loader, "compilerConfiguration.groovy"));
+    assertEquals(1, lookups.get());
+    Files.write(new File(dir, "compilerConfiguration.groovy").toPath(), new byte[0]);
+    Thread.sleep(200);
+    assertNotNull(resources.resource(loader, "compilerConfiguration.groovy"));
+    assertEquals(2, lookups.get());
+  }
+
+  @Test
+  public void testMissingResourceIsNotMemoized() throws Exception {
+    File dir = folder.newFolder();
+    ClassLoader loader = loader(dir);
+    ScriptResources resources = new ScriptResources(0L);
+    assertNull(resources.resource(loader, "Foo.groovy"));
+    assertNull(resources.resource(loader, "Foo.groovy"));
+    assertEquals(2, lookups.get());
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.support;
+
+import java.util.Map;
+
+/**
+ * The converter the codegen processor would generate for {@link TestExtendedDataObject}.
+ */
+public class TestExtendedDataObjectConverter {
+
+  public static void fromJson(Iterable<Map.Entry<String, Object>> json, TestExtendedDataObject obj) {
+    for (Map.Entry<String, Object> member : json) {
+      switch (member.getKey()) {
+        case "color":
+          if (member.getValue() instanceof String) {
+            obj.setColor((String) member.getValue());
+          }
+          break;
+      }
+    }
+  }
+}
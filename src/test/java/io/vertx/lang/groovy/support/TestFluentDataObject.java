@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.support;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.json.annotations.JsonGen;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A data object whose JSON constructor only applies its converter, like a generated converter.
+ */
+@DataObject
+@JsonGen
+public class TestFluentDataObject {
+
+  private String name;
+  private int size;
+  private TestFluentDataObject child;
+
+  public TestFluentDataObject() {
+  }
+
+  public TestFluentDataObject(JsonObject json) {
+    this();
+    TestFluentDataObjectConverter.fromJson(json, this);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public TestFluentDataObject setName(String name) {
+    this.name = name;
+    return this;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public TestFluentDataObject setSize(int size) {
+    this.size = size;
+    return this;
+  }
+
+  public TestFluentDataObject getChild() {
+    return child;
+  }
+
+  public TestFluentDataObject setChild(TestFluentDataObject child) {
+    this.child = child;
+    return this;
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.support;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The converter the codegen processor would generate for {@link TestFluentDataObject}, it counts the conversions so
+ * tests can tell the runtime conversion from the compiled setter calls.
+ */
+public class TestFluentDataObjectConverter {
+
+  public static final AtomicInteger conversions = new AtomicInteger();
+
+  public static void fromJson(Iterable<Map.Entry<String, Object>> json, TestFluentDataObject obj) {
+    conversions.incrementAndGet();
+    for (Map.Entry<String, Object> member : json) {
+      switch (member.getKey()) {
+        case "name":
+          if (member.getValue() instanceof String) {
+            obj.setName((String) member.getValue());
+          }
+          break;
+        case "size":
+          if (member.getValue() instanceof Number) {
+            obj.setSize(((Number) member.getValue()).intValue());
+          }
+          break;
+        case "child":
+          if (member.getValue() instanceof JsonObject) {
+            obj.setChild(new TestFluentDataObject((JsonObject) member.getValue()));
+          }
+          break;
+      }
+    }
+  }
+}
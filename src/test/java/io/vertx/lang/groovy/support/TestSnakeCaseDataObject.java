@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.vertx.lang.groovy.support;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.format.SnakeCase;
+import io.vertx.codegen.json.annotations.JsonGen;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A data object whose JSON members are named in snake case, e.g {@code max_size} for the {@code maxSize} property.
+ */
+@DataObject
+@JsonGen(jsonPropertyNameFormatter = SnakeCase.class)
+public class TestSnakeCaseDataObject {
+
+  private int maxSize;
+
+  public TestSnakeCaseDataObject() {
+  }
+
+  public TestSnakeCaseDataObject(JsonObject json) {
+    this();
+    TestSnakeCaseDataObjectConverter.fromJson(json, this);
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public TestSnakeCaseDataObject setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+    return this;
+  }
+}
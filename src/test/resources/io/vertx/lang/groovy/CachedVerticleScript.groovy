@@ -0,0 +1,3 @@
+package io.vertx.lang.groovy
+
+CompiledScriptCacheTest.classes.add(getClass())
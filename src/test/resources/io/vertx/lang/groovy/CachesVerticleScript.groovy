@@ -0,0 +1,6 @@
+package io.vertx.lang.groovy
+
+import java.util.concurrent.ConcurrentHashMap
+
+def value = caches.cache('values', maxSize: 10).computeIfAbsent('key') { new Object() }
+System.properties.computeIfAbsent("cachedValues", { ConcurrentHashMap.newKeySet() }).add(System.identityHashCode(value))
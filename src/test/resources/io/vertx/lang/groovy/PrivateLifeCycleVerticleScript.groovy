@@ -0,0 +1,9 @@
+package io.vertx.lang.groovy
+
+private void vertxStart() {
+  System.setProperty("started", "true");
+}
+
+private void vertxStop() {
+  System.setProperty("stopped", "true");
+}
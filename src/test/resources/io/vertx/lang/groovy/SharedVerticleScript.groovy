@@ -0,0 +1,9 @@
+package io.vertx.lang.groovy
+
+def vertxShared() {
+  [pattern: ~/[a-z]+/, id: UUID.randomUUID().toString()].asImmutable()
+}
+
+if (shared.pattern.matcher("abc").matches()) {
+  vertx.eventBus().send("shared", vertx.getOrCreateContext().deploymentID() + " " + shared.id)
+}
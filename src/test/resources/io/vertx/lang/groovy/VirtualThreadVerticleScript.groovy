@@ -0,0 +1,14 @@
+package io.vertx.lang.groovy
+
+import static io.vertx.lang.groovy.Await.await
+
+void vertxStart() {
+  await(vertx.timer(10))
+  def values = await([vertx.executeBlocking { "a" }, io.vertx.core.Future.succeededFuture("b")])
+  System.setProperty("started", (Thread.currentThread().isVirtual() && values == ["a", "b"]).toString())
+}
+
+void vertxStop() {
+  Thread.sleep(10)
+  System.setProperty("stopped", Thread.currentThread().isVirtual().toString())
+}